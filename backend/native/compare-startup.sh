@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+# Compares the startup time and resident memory of the JVM, JVM with AOT and native builds of the application.
+#
+# Build first, from the backend directory:
+#   mvn -Pnative package -DskipTests        # JVM jar with the AOT-generated code (target/speedshield-*.jar)
+#   mvn -Pnative native:compile -DskipTests # native executable (target/speedshield)
+#
+# Usage: native/compare-startup.sh [runs] [application arguments...]
+# The database must be reachable, e.g. docker compose up -d postgres. Builds that are missing are skipped.
+# Startup time is the "process running for" time Spring Boot logs once the application is ready to serve,
+# and memory is the resident set size measured right after.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+runs="${1:-5}"
+shift || true
+app_args=("--server.port=0" "--spring.docker.compose.enabled=false" "$@")
+jar="$(ls target/speedshield-*.jar 2>/dev/null | grep -v plain | head -n 1 || true)"
+native="target/speedshield"
+
+# Runs the command once and prints "<startup seconds> <rss KiB>"
+measure() {
+  local log
+  log="$(mktemp)"
+  "$@" "${app_args[@]}" >"$log" 2>&1 &
+  local pid=$!
+  local started=""
+  for _ in $(seq 1 600); do
+    started="$(grep -o 'process running for [0-9.]*' "$log" | grep -o '[0-9.]*$' || true)"
+    if [[ -n "$started" ]] || ! kill -0 "$pid" 2>/dev/null; then
+      break
+    fi
+    sleep 0.1
+  done
+  if [[ -z "$started" ]]; then
+    echo "Application did not start, see $log" >&2
+    kill "$pid" 2>/dev/null || true
+    return 1
+  fi
+  local rss
+  rss="$(ps -o rss= -p "$pid" | tr -d ' ')"
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  rm -f "$log"
+  echo "$started $rss"
+}
+
+# Prints the median of the numbers read from standard input
+median() {
+  sort -n | awk '{ values[NR] = $1 } END { print (NR % 2 ? values[(NR + 1) / 2] : (values[NR / 2] + values[NR / 2 + 1]) / 2) }'
+}
+
+compare() {
+  local name="$1"
+  shift
+  local times=() rss=()
+  for _ in $(seq 1 "$runs"); do
+    read -r time kib < <(measure "$@")
+    times+=("$time")
+    rss+=("$kib")
+  done
+  printf '%-10s %12s %12s\n' "$name" \
+    "$(printf '%s\n' "${times[@]}" | median)" \
+    "$(printf '%s\n' "${rss[@]}" | median | awk '{ printf "%.0f", $1 / 1024 }')"
+}
+
+printf '%-10s %12s %12s\n' "build" "startup (s)" "rss (MiB)"
+if [[ -n "$jar" ]]; then
+  compare "jvm" java -jar "$jar"
+  compare "jvm-aot" java -Dspring.aot.enabled=true -jar "$jar"
+else
+  echo "No jar in target, skipping the JVM builds" >&2
+fi
+if [[ -x "$native" ]]; then
+  compare "native" "$native"
+else
+  echo "No native executable in target, skipping the native build" >&2
+fi
@@ -1,14 +1,33 @@
 package com.dmarts05.speedshield;
 
+import com.dmarts05.speedshield.config.ClientIpProperties;
+import com.dmarts05.speedshield.config.CredentialStuffingProperties;
+import com.dmarts05.speedshield.config.DatabaseBulkheadProperties;
+import com.dmarts05.speedshield.config.IntrospectionRateLimitProperties;
 import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.config.LoginRateLimitProperties;
+import com.dmarts05.speedshield.config.NativeRuntimeHints;
+import com.dmarts05.speedshield.config.PasswordHashingProperties;
+import com.dmarts05.speedshield.config.RefreshTokenBatchingProperties;
+import com.dmarts05.speedshield.config.RefreshTokenCleanupProperties;
+import com.dmarts05.speedshield.config.RefreshTokenPartitioningProperties;
+import com.dmarts05.speedshield.config.RefreshTokenStoreProperties;
+import com.dmarts05.speedshield.config.TokenIntrospectionProperties;
+import com.dmarts05.speedshield.config.TokenRevocationProperties;
+import com.dmarts05.speedshield.config.UserCacheProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableScheduling
-@EnableConfigurationProperties(JwtProperties.class)
+@ImportRuntimeHints(NativeRuntimeHints.class)
+@EnableConfigurationProperties({JwtProperties.class, UserCacheProperties.class, PasswordHashingProperties.class, RefreshTokenCleanupProperties.class, RefreshTokenPartitioningProperties.class,
+        DatabaseBulkheadProperties.class, ClientIpProperties.class, LoginRateLimitProperties.class,
+        CredentialStuffingProperties.class, TokenRevocationProperties.class, TokenIntrospectionProperties.class, IntrospectionRateLimitProperties.class, RefreshTokenBatchingProperties.class,
+        RefreshTokenStoreProperties.class})
 public class SpeedshieldApplication {
 
     public static void main(String[] args) {
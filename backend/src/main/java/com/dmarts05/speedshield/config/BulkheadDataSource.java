@@ -0,0 +1,73 @@
+package com.dmarts05.speedshield.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * DataSource that obtains a {@link DatabaseBulkhead} permit before handing out a connection,
+ * and releases it when the connection is closed.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+    private final DatabaseBulkhead databaseBulkhead;
+
+    /**
+     * Constructs a BulkheadDataSource around the given DataSource.
+     *
+     * @param targetDataSource The DataSource providing the connections.
+     * @param databaseBulkhead The bulkhead bounding concurrent connections.
+     */
+    public BulkheadDataSource(DataSource targetDataSource, DatabaseBulkhead databaseBulkhead) {
+        super(targetDataSource);
+        this.databaseBulkhead = databaseBulkhead;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        databaseBulkhead.acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            databaseBulkhead.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        databaseBulkhead.acquire();
+        try {
+            return releasingOnClose(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            databaseBulkhead.release();
+            throw e;
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("close")) {
+                // Closing is idempotent, the permit is released by the first call only
+                if (released.compareAndSet(false, true)) {
+                    try {
+                        connection.close();
+                    } finally {
+                        databaseBulkhead.release();
+                    }
+                }
+                return null;
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        });
+    }
+}
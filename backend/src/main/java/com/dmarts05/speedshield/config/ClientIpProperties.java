@@ -0,0 +1,25 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.List;
+
+/**
+ * Configuration properties for resolving the address of the client behind reverse proxies and load balancers.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.client-ip")
+public class ClientIpProperties {
+    /**
+     * Addresses or CIDR ranges of the proxies whose X-Forwarded-For header is trusted.
+     * Requests from any other address are attributed to that address, whatever header they send.
+     */
+    @NotNull
+    private final List<String> trustedProxies;
+}
@@ -0,0 +1,60 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the detection of credential stuffing from failed login frequencies.
+ * The detector uses width * depth * 4 bytes of memory, whatever the number of client IPs and usernames seen.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.credential-stuffing")
+public class CredentialStuffingProperties {
+    /**
+     * Whether client IPs and usernames with too many failed logins are rejected.
+     */
+    private final boolean enabled;
+
+    /**
+     * Number of counters per row of the count-min sketch.
+     */
+    @Min(64)
+    @Max(1 << 24)
+    private final int width;
+
+    /**
+     * Number of rows of the count-min sketch.
+     */
+    @Min(1)
+    @Max(16)
+    private final int depth;
+
+    /**
+     * Interval after which every failure count is halved.
+     */
+    @NotNull
+    @DurationMin(seconds = 1)
+    private final Duration decayInterval;
+
+    /**
+     * Decayed failed login count from which a client IP is rejected.
+     */
+    @Min(1)
+    private final int ipFailureThreshold;
+
+    /**
+     * Decayed failed login count from which a username is rejected.
+     */
+    @Min(1)
+    private final int usernameFailureThreshold;
+}
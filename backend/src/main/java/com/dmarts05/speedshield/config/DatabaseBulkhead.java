@@ -0,0 +1,103 @@
+package com.dmarts05.speedshield.config;
+
+import com.dmarts05.speedshield.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fair semaphore bounding the number of threads holding a database connection at once.
+ * With virtual threads any number of requests may reach the database together, so excess requests queue here
+ * in arrival order for a bounded time and are then rejected, instead of piling up on the connection pool.
+ */
+public class DatabaseBulkhead implements MeterBinder {
+    private final Semaphore semaphore;
+    private final int permits;
+    private final long maxWaitNanos;
+    private Timer waitTimer;
+    private Counter rejectedCounter;
+
+    /**
+     * Constructs a DatabaseBulkhead with the given number of permits and maximum wait.
+     *
+     * @param permits Number of concurrent database connections allowed.
+     * @param maxWait Maximum time to wait for a permit.
+     */
+    public DatabaseBulkhead(int permits, Duration maxWait) {
+        this.semaphore = new Semaphore(permits, true);
+        this.permits = permits;
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Acquires a permit, waiting up to the maximum wait.
+     *
+     * @throws DatabaseBusyException If no permit became available in time or the thread was interrupted.
+     */
+    public void acquire() {
+        long startedAt = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (waitTimer != null) {
+            waitTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            if (rejectedCounter != null) {
+                rejectedCounter.increment();
+            }
+            throw new DatabaseBusyException();
+        }
+    }
+
+    /**
+     * Releases a permit previously obtained through {@link #acquire()}.
+     */
+    public void release() {
+        semaphore.release();
+    }
+
+    /**
+     * Retrieves the number of permits currently available.
+     *
+     * @return Available permits.
+     */
+    public int getAvailablePermits() {
+        return semaphore.availablePermits();
+    }
+
+    /**
+     * Retrieves the estimated number of threads waiting for a permit.
+     *
+     * @return Queue length.
+     */
+    public int getQueueLength() {
+        return semaphore.getQueueLength();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        waitTimer = Timer.builder("db.bulkhead.wait")
+                .description("Time spent waiting for a database bulkhead permit")
+                .register(registry);
+        rejectedCounter = Counter.builder("db.bulkhead.rejected")
+                .description("Database accesses rejected because the bulkhead was saturated")
+                .register(registry);
+        Gauge.builder("db.bulkhead.queue.size", semaphore, Semaphore::getQueueLength)
+                .description("Threads waiting for a database bulkhead permit")
+                .register(registry);
+        Gauge.builder("db.bulkhead.active", semaphore, s -> permits - s.availablePermits())
+                .description("Database bulkhead permits in use")
+                .register(registry);
+    }
+}
@@ -0,0 +1,51 @@
+package com.dmarts05.speedshield.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration class that routes every database connection through the {@link DatabaseBulkhead}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.database-bulkhead", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DatabaseBulkheadConfig {
+
+    /**
+     * Provides the database bulkhead, sized to the connection pool unless configured otherwise.
+     *
+     * @param databaseBulkheadProperties Database bulkhead properties configuration.
+     * @param maximumPoolSize            Maximum size of the Hikari connection pool.
+     * @return The DatabaseBulkhead instance.
+     */
+    @Bean
+    public DatabaseBulkhead databaseBulkhead(DatabaseBulkheadProperties databaseBulkheadProperties,
+                                             @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+        int permits = databaseBulkheadProperties.getPermits() != null ? databaseBulkheadProperties.getPermits() : maximumPoolSize;
+        return new DatabaseBulkhead(permits, databaseBulkheadProperties.getMaxWait());
+    }
+
+    /**
+     * Wraps the DataSource so that connections are only handed out with a bulkhead permit.
+     *
+     * @param databaseBulkhead Provider of the database bulkhead.
+     * @return The BeanPostProcessor instance.
+     */
+    @Bean
+    public static BeanPostProcessor databaseBulkheadDataSourcePostProcessor(ObjectProvider<DatabaseBulkhead> databaseBulkhead) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                    return new BulkheadDataSource(dataSource, databaseBulkhead.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
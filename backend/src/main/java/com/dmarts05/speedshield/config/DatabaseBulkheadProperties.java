@@ -0,0 +1,47 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the bulkhead limiting concurrent database access.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.database-bulkhead")
+public class DatabaseBulkheadProperties {
+    /**
+     * Whether database connections are acquired through the bulkhead.
+     */
+    private final boolean enabled;
+
+    /**
+     * Number of concurrent database connections allowed. Defaults to the connection pool size.
+     */
+    @Min(1)
+    private final Integer permits;
+
+    /**
+     * Maximum time a request waits for a permit before failing with 503 Service Unavailable.
+     */
+    @NotNull
+    private final Duration maxWait;
+
+    /**
+     * Whether to report code paths where virtual threads get pinned to their carrier thread.
+     */
+    private final boolean pinnedThreadDiagnostics;
+
+    /**
+     * Minimum pinning duration reported by the pinned thread diagnostics.
+     */
+    @NotNull
+    private final Duration pinnedThreadThreshold;
+}
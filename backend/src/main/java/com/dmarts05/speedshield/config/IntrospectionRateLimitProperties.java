@@ -0,0 +1,47 @@
+package com.dmarts05.speedshield.config;
+
+import com.dmarts05.speedshield.dto.IntrospectionRequestDto;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the rate limiting of token introspection.
+ * Each caller gets a token bucket counted in introspected tokens rather than requests, since every token costs
+ * a signature verification, holding up to its capacity in tokens and refilled by one token every refill interval.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.introspection-rate-limit")
+public class IntrospectionRateLimitProperties {
+    /**
+     * Whether token introspection is rate limited.
+     */
+    private final boolean enabled;
+
+    /**
+     * Maximum burst of tokens introspected by a single caller, at least a full batch.
+     */
+    @Min(IntrospectionRequestDto.MAX_TOKENS)
+    private final int capacity;
+
+    /**
+     * Time to regain one token for a caller.
+     */
+    @NotNull
+    @DurationMin(nanos = 1)
+    private final Duration refillInterval;
+
+    /**
+     * Maximum number of buckets kept. Idle buckets are evicted first.
+     */
+    @Min(1)
+    private final long maxKeys;
+}
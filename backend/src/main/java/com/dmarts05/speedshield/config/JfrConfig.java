@@ -0,0 +1,36 @@
+package com.dmarts05.speedshield.config;
+
+import com.dmarts05.speedshield.jfr.RepositoryCallEventInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+/**
+ * Configuration class for the custom Java Flight Recorder events.
+ * Events only cost anything while a recording enables them, for instance with the shipped settings:
+ * {@code -XX:StartFlightRecording:settings=default,settings=jfr/speedshield.jfc}.
+ */
+@Configuration
+public class JfrConfig {
+
+    /**
+     * Adds the repository call event interceptor to every Spring Data repository.
+     *
+     * @return The BeanPostProcessor instance.
+     */
+    @Bean
+    public static BeanPostProcessor repositoryCallEventPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+                    repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory ->
+                            repositoryFactory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                                    proxyFactory.addAdvice(new RepositoryCallEventInterceptor(repositoryInformation.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 import java.time.Duration;
+import java.util.Map;
 
 /**
  * Configuration properties for JWT (JSON Web Token) related settings.
@@ -19,9 +20,8 @@ import java.time.Duration;
 @ConfigurationProperties(prefix = "app.jwt")
 public class JwtProperties {
     /**
-     * Secret used for JWT signing and verification.
+     * Secret used for JWT signing and verification, registered in the key ring under the "default" key id.
      */
-    @NotNull
     private final String secret;
 
     /**
@@ -49,4 +49,25 @@ public class JwtProperties {
     @NotNull
     @DurationMin(seconds = 1)
     private final Duration refreshExpiresIn;
+
+    /**
+     * Key id of the key used to sign new JWTs. Defaults to "default".
+     */
+    private final String activeKeyId;
+
+    /**
+     * Base64-encoded secrets indexed by key id. Every key is accepted for verification.
+     */
+    private final Map<String, String> keys;
+
+    /**
+     * Whether requests are authenticated from the user id and role claims of the JWT alone, without loading the user.
+     * Changes to a user's role or removal of the user only take effect once their current JWT expires.
+     */
+    private final boolean statelessAuthentication;
+
+    /**
+     * Whether HMAC-signed tokens are verified by the built-in fast path before falling back to the JWT library.
+     */
+    private final boolean fastPathVerification;
 }
@@ -0,0 +1,59 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the rate limiting of login and registration attempts.
+ * Each client IP and each username gets a token bucket holding up to its capacity in attempts,
+ * refilled by one attempt every refill interval.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.login-rate-limit")
+public class LoginRateLimitProperties {
+    /**
+     * Whether login and registration attempts are rate limited.
+     */
+    private final boolean enabled;
+
+    /**
+     * Maximum burst of attempts from a single client IP.
+     */
+    @Min(1)
+    private final int ipCapacity;
+
+    /**
+     * Time to regain one attempt for a client IP.
+     */
+    @NotNull
+    @DurationMin(millis = 1)
+    private final Duration ipRefillInterval;
+
+    /**
+     * Maximum burst of attempts against a single username.
+     */
+    @Min(1)
+    private final int usernameCapacity;
+
+    /**
+     * Time to regain one attempt for a username.
+     */
+    @NotNull
+    @DurationMin(millis = 1)
+    private final Duration usernameRefillInterval;
+
+    /**
+     * Maximum number of buckets kept per key type. Idle buckets are evicted first.
+     */
+    @Min(1)
+    private final long maxKeys;
+}
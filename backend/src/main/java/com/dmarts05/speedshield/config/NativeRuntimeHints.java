@@ -0,0 +1,92 @@
+package com.dmarts05.speedshield.config;
+
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.model.RevokedTokenEntity;
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.repository.ClaimedRefreshToken;
+import com.dmarts05.speedshield.repository.StoredRefreshToken;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.boot.context.properties.bind.BindableRuntimeHintsRegistrar;
+import org.springframework.data.projection.TargetAware;
+
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Runtime hints for the GraalVM native image, covering what Spring AOT cannot infer on its own:
+ * the jjwt implementation classes that jjwt-api instantiates by name, the jjwt-jackson serializers found
+ * through ServiceLoader, the configuration properties bound through their constructor, the entities
+ * whose Lombok-generated accessors and constructors Hibernate calls reflectively and the JDK proxies created at runtime.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+    /**
+     * Classes of jjwt-impl that jjwt-api loads by name.
+     */
+    static final List<String> JJWT_IMPL_CLASSES = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms");
+
+    /**
+     * Classes of jjwt-jackson registered as ServiceLoader providers.
+     */
+    static final List<String> JJWT_JACKSON_CLASSES = List.of(
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        JJWT_IMPL_CLASSES.forEach(className -> hints.reflection().registerType(TypeReference.of(className),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+        JJWT_JACKSON_CLASSES.forEach(className -> hints.reflection().registerType(TypeReference.of(className),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        BindableRuntimeHintsRegistrar.forTypes(
+                JwtProperties.class,
+                UserCacheProperties.class,
+                PasswordHashingProperties.class,
+                RefreshTokenCleanupProperties.class,
+                RefreshTokenPartitioningProperties.class,
+                DatabaseBulkheadProperties.class,
+                ClientIpProperties.class,
+                LoginRateLimitProperties.class,
+                CredentialStuffingProperties.class,
+                TokenRevocationProperties.class,
+                TokenIntrospectionProperties.class,
+                IntrospectionRateLimitProperties.class,
+                RefreshTokenBatchingProperties.class,
+                RefreshTokenStoreProperties.class).registerHints(hints, classLoader);
+
+        for (Class<?> entity : List.of(UserEntity.class, RefreshTokenEntity.class, RevokedTokenEntity.class)) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        // Native query results are exposed through a JDK proxy implementing the projection interface
+        for (Class<?> projection : List.of(ClaimedRefreshToken.class, StoredRefreshToken.class)) {
+            hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(projection, TargetAware.class));
+        }
+        // Connections handed out by BulkheadDataSource release their permit through a JDK proxy when closed
+        hints.proxies().registerJdkProxy(Connection.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for password hashing.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.password-hashing")
+public class PasswordHashingProperties {
+    /**
+     * Number of platform threads hashing passwords. Defaults to the number of available processors.
+     */
+    @Min(1)
+    private final Integer threads;
+
+    /**
+     * Maximum number of hashing tasks waiting for a thread before new ones are rejected.
+     */
+    @Min(1)
+    private final int queueCapacity;
+
+    /**
+     * Algorithm used to hash new passwords. Hashes made with the other algorithm are still verified
+     * and upgraded on the next successful login.
+     */
+    @NotNull
+    private final Algorithm algorithm;
+
+    /**
+     * Time a single hash should take on this machine, used to calibrate the hashing cost at startup.
+     */
+    @NotNull
+    @DurationMin(millis = 1)
+    private final Duration targetTime;
+
+    /**
+     * Lowest BCrypt strength (log2 of the rounds) calibration may choose.
+     */
+    @Min(4)
+    @Max(31)
+    private final int bcryptMinStrength;
+
+    /**
+     * Memory used by each Argon2id hash, in KiB.
+     */
+    @Min(8)
+    private final int argon2MemoryKib;
+
+    /**
+     * Degree of parallelism of each Argon2id hash.
+     */
+    @Min(1)
+    private final int argon2Parallelism;
+
+    /**
+     * Lowest number of Argon2id iterations calibration may choose.
+     */
+    @Min(1)
+    private final int argon2MinIterations;
+
+    /**
+     * Retrieves the number of hashing threads, falling back to the number of available processors.
+     *
+     * @return Number of hashing threads.
+     */
+    public int getThreads() {
+        return threads != null ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Password hashing algorithms available for new hashes.
+     */
+    public enum Algorithm {
+        BCRYPT,
+        ARGON2ID
+    }
+}
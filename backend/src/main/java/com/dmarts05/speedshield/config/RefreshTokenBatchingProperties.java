@@ -0,0 +1,42 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the optional group commit of the refresh tokens inserted on login.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.refresh-token-batching")
+public class RefreshTokenBatchingProperties {
+    /**
+     * Whether concurrent refresh token inserts are coalesced into batches written in a single transaction.
+     */
+    private final boolean enabled;
+
+    /**
+     * Maximum number of refresh tokens inserted per batch (and transaction).
+     */
+    @Min(1)
+    private final int maxBatchSize;
+
+    /**
+     * Maximum time the first refresh token of a batch waits for others to join it.
+     */
+    @NotNull
+    private final Duration maxDelay;
+
+    /**
+     * Maximum number of refresh tokens waiting to be written. Inserts beyond it are written on their own.
+     */
+    @Min(1)
+    private final int queueCapacity;
+}
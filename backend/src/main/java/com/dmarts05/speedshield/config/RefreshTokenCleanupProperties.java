@@ -0,0 +1,39 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the periodic cleanup of expired refresh tokens.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.refresh-token-cleanup")
+public class RefreshTokenCleanupProperties {
+    /**
+     * Delay between the end of a cleanup run and the start of the next one.
+     */
+    @NotNull
+    @DurationMin(seconds = 1)
+    private final Duration interval;
+
+    /**
+     * Maximum number of expired refresh tokens deleted per statement (and transaction).
+     */
+    @Min(1)
+    private final int chunkSize;
+
+    /**
+     * Maximum number of chunks deleted per cleanup run, leaving the rest for the next run.
+     */
+    @Min(1)
+    private final int maxChunksPerRun;
+}
@@ -0,0 +1,39 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the optional daily range partitioning of the refresh tokens table by expiry date.
+ * The table has to be converted beforehand with {@code db/refresh_tokens_partitioned.sql}.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.refresh-token-partitioning")
+public class RefreshTokenPartitioningProperties {
+    /**
+     * Whether expired refresh tokens are removed by dropping whole partitions instead of deleting rows.
+     */
+    private final boolean enabled;
+
+    /**
+     * Delay between partition maintenance runs, which create upcoming partitions and drop expired ones.
+     */
+    @NotNull
+    @DurationMin(seconds = 1)
+    private final Duration maintenanceInterval;
+
+    /**
+     * Number of extra daily partitions created beyond the refresh token lifetime.
+     */
+    @Min(1)
+    private final int partitionsAhead;
+}
@@ -0,0 +1,77 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the storage of refresh tokens.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.refresh-token-store")
+public class RefreshTokenStoreProperties {
+    /**
+     * Where refresh tokens are stored.
+     */
+    @NotNull
+    private final Type type;
+
+    /**
+     * Number of lock stripes the in-memory store spreads its refresh tokens across.
+     */
+    @Min(1)
+    private final int stripes;
+
+    /**
+     * Granularity of the in-memory expiry index, which is also the delay between evictions of expired refresh tokens.
+     */
+    @NotNull
+    @DurationMin(seconds = 1)
+    private final Duration tickDuration;
+
+    /**
+     * Whether the in-memory store writes its changes behind to the database and reloads them at startup.
+     */
+    private final boolean writeBehind;
+
+    /**
+     * Delay between write-behind flushes, which bounds the changes lost if the instance stops abruptly.
+     */
+    @NotNull
+    @DurationMin(millis = 10)
+    private final Duration writeBehindInterval;
+
+    /**
+     * Number of flushes a change that fails on its own is attempted in before it is dropped.
+     */
+    @Min(1)
+    private final int writeBehindMaxAttempts;
+
+    /**
+     * Maximum number of changes kept for a later flush after failing. The oldest changes are dropped beyond it.
+     */
+    @Min(1)
+    private final int writeBehindMaxRetained;
+
+    /**
+     * Refresh token stores available.
+     */
+    public enum Type {
+        /**
+         * Refresh tokens are stored in the database, shared by every instance.
+         */
+        JPA,
+        /**
+         * Refresh tokens are held in the memory of a single instance.
+         */
+        MEMORY
+    }
+}
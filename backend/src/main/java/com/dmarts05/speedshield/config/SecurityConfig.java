@@ -1,6 +1,10 @@
 package com.dmarts05.speedshield.config;
 
 import com.dmarts05.speedshield.filter.JwtFilter;
+import com.dmarts05.speedshield.model.Role;
+import com.dmarts05.speedshield.service.ExecutorPasswordEncoder;
+import com.dmarts05.speedshield.service.PasswordEncoderCalibrator;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
@@ -11,7 +15,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
@@ -23,6 +26,26 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
+    /**
+     * Prefix of the authentication endpoints, which are open to anonymous requests.
+     */
+    public static final String AUTH_PATH_PREFIX = "/api/auth/";
+
+    /**
+     * Path of the token introspection endpoint, which only API gateways may call.
+     */
+    public static final String INTROSPECTION_PATH = "/api/introspect";
+
+    /**
+     * Other paths open to anonymous requests.
+     */
+    public static final String[] PUBLIC_PATHS = {"/", "/error", "/actuator/health"};
+
+    /**
+     * Prefix of the actuator endpoints other than the health check, which expose operational data to administrators only.
+     */
+    public static final String ACTUATOR_PATH_PREFIX = "/actuator/";
+
     private final JwtFilter jwtFilter;
 
     public SecurityConfig(JwtFilter jwtFilter) {
@@ -38,10 +61,14 @@ public class SecurityConfig {
      */
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        return http.authorizeHttpRequests(authorizeHttpRequests -> authorizeHttpRequests.requestMatchers("api/auth/**")
+        return http.authorizeHttpRequests(authorizeHttpRequests -> authorizeHttpRequests.requestMatchers(AUTH_PATH_PREFIX + "**")
                         .permitAll()
-                        .requestMatchers("/", "/error")
+                        .requestMatchers(PUBLIC_PATHS)
                         .permitAll()
+                        .requestMatchers(INTROSPECTION_PATH)
+                        .hasAuthority(Role.GATEWAY.name())
+                        .requestMatchers(ACTUATOR_PATH_PREFIX + "**")
+                        .hasAuthority(Role.ADMIN.name())
                         .anyRequest()
                         .authenticated())
                 .logout(l -> l.logoutSuccessUrl("/").permitAll())
@@ -54,13 +81,16 @@ public class SecurityConfig {
     }
 
     /**
-     * Provides a PasswordEncoder bean.
+     * Provides a PasswordEncoder bean that hashes on a bounded pool of platform threads.
      *
-     * @return A BCryptPasswordEncoder instance.
+     * @param passwordHashingProperties Password hashing properties configuration.
+     * @param meterRegistry             Registry for the hashing pool metrics.
+     * @return An ExecutorPasswordEncoder delegating to a calibrated DelegatingPasswordEncoder.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties passwordHashingProperties, MeterRegistry meterRegistry) {
+        PasswordEncoder calibratedPasswordEncoder = new PasswordEncoderCalibrator(passwordHashingProperties).createPasswordEncoder();
+        return new ExecutorPasswordEncoder(calibratedPasswordEncoder, passwordHashingProperties, meterRegistry);
     }
 
     /**
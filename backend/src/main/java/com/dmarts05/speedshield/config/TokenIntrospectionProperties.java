@@ -0,0 +1,47 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the batch token introspection endpoint.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.token-introspection")
+public class TokenIntrospectionProperties {
+    /**
+     * Number of platform threads verifying the tokens of large batches. Defaults to the number of available processors.
+     */
+    @Min(1)
+    private final Integer parallelism;
+
+    /**
+     * Batch size from which tokens are verified in parallel rather than one after another on the request thread.
+     */
+    @Min(1)
+    private final int parallelThreshold;
+
+    /**
+     * Maximum time callers may cache an introspection response, bounding how long a revoked token can still
+     * be seen as active by them.
+     */
+    @NotNull
+    private final Duration maxCacheAge;
+
+    /**
+     * Retrieves the number of platform threads verifying the tokens of large batches.
+     *
+     * @return Configured number of threads, or the number of available processors if not set.
+     */
+    public int getParallelism() {
+        return parallelism != null ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
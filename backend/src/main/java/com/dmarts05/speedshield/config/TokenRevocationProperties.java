@@ -0,0 +1,42 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-memory denylist of revoked access tokens.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.token-revocation")
+public class TokenRevocationProperties {
+    /**
+     * Number of unexpired revoked tokens the Bloom filter is sized for. It is resized when exceeded.
+     */
+    @Min(1)
+    private final int expectedRevocations;
+
+    /**
+     * Probability that a token that was not revoked has to be looked up in the exact denylist.
+     */
+    @DecimalMin(value = "0", inclusive = false)
+    @DecimalMax(value = "0.5")
+    private final double falsePositiveProbability;
+
+    /**
+     * Interval at which tokens revoked by other instances are loaded and expired tokens are pruned.
+     */
+    @NotNull
+    @DurationMin(seconds = 1)
+    private final Duration syncInterval;
+}
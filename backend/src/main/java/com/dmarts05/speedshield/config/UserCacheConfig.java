@@ -0,0 +1,62 @@
+package com.dmarts05.speedshield.config;
+
+import com.dmarts05.speedshield.model.UserEntity;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+
+/**
+ * Configuration class for the Hibernate second-level cache, backed by bounded Caffeine caches.
+ */
+@Configuration
+public class UserCacheConfig {
+
+    /**
+     * Provides the JCache CacheManager holding the user cache regions, each bounded in size and time to live.
+     *
+     * @param userCacheProperties User cache properties configuration.
+     * @return The CacheManager instance.
+     */
+    @Bean
+    public CacheManager userCacheManager(UserCacheProperties userCacheProperties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(userCacheProperties.getMaxSize()));
+        configuration.setExpireAfterWrite(OptionalLong.of(userCacheProperties.getTimeToLive().toNanos()));
+        configuration.setStatisticsEnabled(true);
+        for (String region : new String[]{UserEntity.CACHE_REGION, UserEntity.NATURAL_ID_CACHE_REGION}) {
+            if (cacheManager.getCache(region) == null) {
+                cacheManager.createCache(region, configuration);
+            }
+        }
+
+        return cacheManager;
+    }
+
+    /**
+     * Enables the Hibernate second-level cache on top of the user CacheManager, along with the statistics
+     * used to report cache hit and miss rates.
+     *
+     * @param userCacheManager The CacheManager holding the user cache regions.
+     * @return The HibernatePropertiesCustomizer instance.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer userCacheHibernatePropertiesCustomizer(CacheManager userCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, userCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.dmarts05.speedshield.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Configuration properties for the in-process second-level cache of user entities.
+ */
+@AllArgsConstructor
+@Getter
+@Validated
+@ConfigurationProperties(prefix = "app.user-cache")
+public class UserCacheProperties {
+    /**
+     * Maximum number of users kept in each cache region.
+     */
+    @Min(1)
+    private final long maxSize;
+
+    /**
+     * Duration after which a cached user is reloaded from the database.
+     */
+    @NotNull
+    @DurationMin(seconds = 1)
+    private final Duration timeToLive;
+}
@@ -0,0 +1,68 @@
+package com.dmarts05.speedshield.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+/**
+ * Diagnostic that reports where virtual threads get pinned to their carrier thread, for instance while blocking
+ * on JDBC calls inside synchronized blocks. Pinned virtual threads hold a carrier thread for the whole wait,
+ * which limits concurrency to the number of carriers. Meant to be enabled temporarily, as it streams JFR events.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.database-bulkhead", name = "pinned-thread-diagnostics", havingValue = "true")
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int REPORTED_FRAMES = 15;
+
+    private final RecordingStream recordingStream;
+    private final Counter pinnedCounter;
+
+    /**
+     * Constructs a VirtualThreadPinningMonitor and starts streaming pinning events.
+     *
+     * @param databaseBulkheadProperties Database bulkhead properties configuration.
+     * @param meterRegistry              Registry for the pinning metrics.
+     */
+    public VirtualThreadPinningMonitor(DatabaseBulkheadProperties databaseBulkheadProperties, MeterRegistry meterRegistry) {
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads pinned to their carrier thread for longer than the threshold")
+                .register(meterRegistry);
+        this.recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT)
+                .withThreshold(databaseBulkheadProperties.getPinnedThreadThreshold())
+                .withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::report);
+        recordingStream.startAsync();
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedCounter.increment();
+        String stackTrace = event.getStackTrace() == null ? "unavailable" : event.getStackTrace().getFrames().stream()
+                .limit(REPORTED_FRAMES)
+                .map(VirtualThreadPinningMonitor::formatFrame)
+                .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        logger.warn("Virtual thread pinned for {} ms:{}", event.getDuration().toMillis(), stackTrace);
+    }
+
+    private static String formatFrame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * Stops streaming pinning events.
+     */
+    @Override
+    public void close() {
+        recordingStream.close();
+    }
+}
@@ -1,7 +1,14 @@
 package com.dmarts05.speedshield.controller;
 
 import com.dmarts05.speedshield.dto.*;
+import com.dmarts05.speedshield.exception.InvalidLoginException;
+import com.dmarts05.speedshield.exception.JwtNotFoundException;
 import com.dmarts05.speedshield.service.AuthService;
+import com.dmarts05.speedshield.service.ClientIpResolver;
+import com.dmarts05.speedshield.service.CredentialStuffingDetector;
+import com.dmarts05.speedshield.service.JwtService;
+import com.dmarts05.speedshield.service.LoginRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,25 +25,48 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginRateLimiter loginRateLimiter;
+    private final CredentialStuffingDetector credentialStuffingDetector;
+    private final JwtService jwtService;
+    private final ClientIpResolver clientIpResolver;
 
     /**
      * Constructs the AuthController with necessary dependencies.
      *
-     * @param authService The user service.
+     * @param authService                The user service.
+     * @param loginRateLimiter           The rate limiter for login and registration attempts.
+     * @param credentialStuffingDetector The detector of sources with too many failed logins.
+     * @param jwtService                 The service for reading the JWT token of a request.
+     * @param clientIpResolver           The resolver of the client address behind trusted proxies.
      */
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, LoginRateLimiter loginRateLimiter, CredentialStuffingDetector credentialStuffingDetector, JwtService jwtService, ClientIpResolver clientIpResolver) {
         this.authService = authService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.credentialStuffingDetector = credentialStuffingDetector;
+        this.jwtService = jwtService;
+        this.clientIpResolver = clientIpResolver;
     }
 
     /**
      * Authenticates the user with the provided login details.
      *
      * @param loginRequestDto The login details.
+     * @param request         The HTTP request, used to identify the client.
      * @return ResponseEntity with the JWT token and refresh token.
      */
     @PostMapping("/login")
-    public ResponseEntity<JwtResponseDto> login(@Valid @RequestBody LoginRequestDto loginRequestDto) {
-        JwtResponseDto jwtResponseDto = authService.login(loginRequestDto);
+    public ResponseEntity<JwtResponseDto> login(@Valid @RequestBody LoginRequestDto loginRequestDto, HttpServletRequest request) {
+        String clientIp = clientIpResolver.resolve(request);
+        loginRateLimiter.checkAttempt(clientIp, loginRequestDto.getUsername());
+        credentialStuffingDetector.checkAttempt(clientIp, loginRequestDto.getUsername());
+
+        JwtResponseDto jwtResponseDto;
+        try {
+            jwtResponseDto = authService.login(loginRequestDto);
+        } catch (InvalidLoginException e) {
+            credentialStuffingDetector.recordFailure(clientIp, loginRequestDto.getUsername());
+            throw e;
+        }
         return new ResponseEntity<>(jwtResponseDto, HttpStatus.CREATED);
     }
 
@@ -44,10 +74,12 @@ public class AuthController {
      * Registers a new user with the provided registration details.
      *
      * @param registerRequestDto The registration details.
+     * @param request            The HTTP request, used to identify the client.
      * @return ResponseEntity with the created user details.
      */
     @PostMapping("/register")
-    public ResponseEntity<UserEntityDto> register(@Valid @RequestBody RegisterRequestDto registerRequestDto) {
+    public ResponseEntity<UserEntityDto> register(@Valid @RequestBody RegisterRequestDto registerRequestDto, HttpServletRequest request) {
+        loginRateLimiter.checkAttempt(clientIpResolver.resolve(request), registerRequestDto.getUsername());
         UserEntityDto userEntityDto = authService.register(registerRequestDto);
         return new ResponseEntity<>(userEntityDto, HttpStatus.CREATED);
     }
@@ -63,4 +95,17 @@ public class AuthController {
         JwtResponseDto jwtResponseDto = authService.refreshToken(refreshTokenRequestDto);
         return new ResponseEntity<>(jwtResponseDto, HttpStatus.CREATED);
     }
+
+    /**
+     * Revokes the JWT token carried by the request, so that it is rejected until it expires.
+     *
+     * @param request The HTTP request carrying the JWT token in its Authorization header.
+     * @return Empty ResponseEntity.
+     * @throws JwtNotFoundException If the request does not carry a JWT token.
+     */
+    @PostMapping("/revoke")
+    public ResponseEntity<Void> revoke(HttpServletRequest request) throws JwtNotFoundException {
+        authService.revokeToken(jwtService.extractTokenFromHeader(request));
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -0,0 +1,58 @@
+package com.dmarts05.speedshield.controller;
+
+import com.dmarts05.speedshield.config.SecurityConfig;
+import com.dmarts05.speedshield.dto.IntrospectionRequestDto;
+import com.dmarts05.speedshield.dto.IntrospectionResponseDto;
+import com.dmarts05.speedshield.dto.TokenIntrospectionDto;
+import com.dmarts05.speedshield.service.IntrospectionRateLimiter;
+import com.dmarts05.speedshield.service.TokenIntrospectionService;
+import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Controller for introspecting batches of JWT tokens, so that API gateways can validate many tokens in one request.
+ * Only callers with the gateway role may introspect tokens.
+ */
+@RestController
+public class IntrospectionController {
+
+    private final TokenIntrospectionService tokenIntrospectionService;
+    private final IntrospectionRateLimiter introspectionRateLimiter;
+
+    /**
+     * Constructs the IntrospectionController with necessary dependencies.
+     *
+     * @param tokenIntrospectionService The token introspection service.
+     * @param introspectionRateLimiter  The rate limiter for introspected tokens per caller.
+     */
+    public IntrospectionController(TokenIntrospectionService tokenIntrospectionService, IntrospectionRateLimiter introspectionRateLimiter) {
+        this.tokenIntrospectionService = tokenIntrospectionService;
+        this.introspectionRateLimiter = introspectionRateLimiter;
+    }
+
+    /**
+     * Introspects a batch of JWT tokens. The response may be cached privately until the first active token expires.
+     *
+     * @param introspectionRequestDto The tokens to introspect.
+     * @param principal               The authenticated caller, whose introspected tokens are rate limited.
+     * @return ResponseEntity with the introspection result of each token, in request order.
+     */
+    @PostMapping(SecurityConfig.INTROSPECTION_PATH)
+    public ResponseEntity<IntrospectionResponseDto> introspect(@Valid @RequestBody IntrospectionRequestDto introspectionRequestDto, Principal principal) {
+        introspectionRateLimiter.checkAttempt(principal.getName(), introspectionRequestDto.getTokens().size());
+        List<TokenIntrospectionDto> results = tokenIntrospectionService.introspect(introspectionRequestDto.getTokens());
+        Duration cacheLifetime = tokenIntrospectionService.cacheLifetime(results, Instant.now());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(cacheLifetime).cachePrivate())
+                .body(new IntrospectionResponseDto(results));
+    }
+}
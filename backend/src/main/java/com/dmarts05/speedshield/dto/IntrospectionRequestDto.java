@@ -0,0 +1,30 @@
+package com.dmarts05.speedshield.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for introspecting a batch of JWT tokens.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntrospectionRequestDto {
+    /**
+     * Maximum number of tokens introspected in a single request.
+     */
+    public static final int MAX_TOKENS = 100;
+
+    /**
+     * JWT tokens to introspect.
+     */
+    @NotEmpty(message = "Tokens are mandatory")
+    @Size(max = MAX_TOKENS, message = "At most " + MAX_TOKENS + " tokens can be introspected at once")
+    private List<@NotBlank(message = "Tokens must not be blank") String> tokens;
+}
@@ -0,0 +1,20 @@
+package com.dmarts05.speedshield.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the introspection results of a batch of JWT tokens.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntrospectionResponseDto {
+    /**
+     * Introspection results, in the order the tokens were requested.
+     */
+    private List<TokenIntrospectionDto> results;
+}
@@ -0,0 +1,66 @@
+package com.dmarts05.speedshield.dto;
+
+import com.dmarts05.speedshield.model.Role;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * DTO for the introspection result of a single JWT token, named after the RFC 7662 response members.
+ * Only "active" is present for tokens that are invalid, expired or revoked.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospectionDto {
+    /**
+     * Whether the token is valid, unexpired and not revoked.
+     */
+    private boolean active;
+
+    /**
+     * Subject (username) the token was issued to.
+     */
+    private String sub;
+
+    /**
+     * Identifier of the user the token was issued to.
+     */
+    private Long uid;
+
+    /**
+     * Role of the user the token was issued to.
+     */
+    private Role role;
+
+    /**
+     * Issuer of the token.
+     */
+    private String iss;
+
+    /**
+     * Audiences the token is intended for.
+     */
+    private Set<String> aud;
+
+    /**
+     * Instant at which the token was issued, in seconds since the epoch.
+     */
+    private Long iat;
+
+    /**
+     * Instant at which the token expires, in seconds since the epoch.
+     */
+    private Long exp;
+
+    /**
+     * Unique identifier of the token.
+     */
+    private String jti;
+}
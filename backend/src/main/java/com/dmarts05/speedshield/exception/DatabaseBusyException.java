@@ -0,0 +1,23 @@
+package com.dmarts05.speedshield.exception;
+
+/**
+ * Exception thrown when a database connection cannot be obtained because the database bulkhead is saturated.
+ */
+public class DatabaseBusyException extends StacklessException {
+
+    /**
+     * Constructs a new DatabaseBusyException with a default message.
+     */
+    public DatabaseBusyException() {
+        super("Service is under heavy load, try again later");
+    }
+
+    /**
+     * Constructs a new DatabaseBusyException with a specified message.
+     *
+     * @param message The detail message.
+     */
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+}
@@ -3,7 +3,7 @@ package com.dmarts05.speedshield.exception;
 /**
  * Exception thrown when a refresh token has expired.
  */
-public class ExpiredRefreshTokenException extends RuntimeException {
+public class ExpiredRefreshTokenException extends StacklessException {
 
     /**
      * Constructs a new ExpiredRefreshTokenException with a default message.
@@ -5,6 +5,9 @@
  */
 package com.dmarts05.speedshield.exception;
 
+import com.dmarts05.speedshield.service.AuthMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -20,6 +23,16 @@ import java.util.Map;
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a GlobalExceptionHandler that counts the handled exceptions.
+     *
+     * @param meterRegistry Registry for the exception counters.
+     */
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
 
     /**
      * Handles MethodArgumentNotValidException thrown when @Validated fails.
@@ -29,6 +42,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        countException(ex);
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getAllErrors().forEach((error) -> {
             String fieldName = ((FieldError) error).getField();
@@ -46,6 +60,33 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(InvalidLoginException.class)
     public ResponseEntity<Map<String, String>> handleInvalidLoginException(InvalidLoginException ex) {
+        countException(ex);
+        Map<String, String> response = Map.of("message", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * Handles JwtNotFoundException thrown when a request that requires a JWT token does not carry one.
+     *
+     * @param ex The exception instance.
+     * @return ResponseEntity with error message and HTTP status UNAUTHORIZED.
+     */
+    @ExceptionHandler(JwtNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleJwtNotFoundException(JwtNotFoundException ex) {
+        countException(ex);
+        Map<String, String> response = Map.of("message", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * Handles InvalidJwtException thrown when a JWT token is invalid, expired or revoked.
+     *
+     * @param ex The exception instance.
+     * @return ResponseEntity with error message and HTTP status UNAUTHORIZED.
+     */
+    @ExceptionHandler(InvalidJwtException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidJwtException(InvalidJwtException ex) {
+        countException(ex);
         Map<String, String> response = Map.of("message", ex.getMessage());
         return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
     }
@@ -58,6 +99,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(UsernameAlreadyTakenException.class)
     public ResponseEntity<Map<String, String>> handleUsernameAlreadyTakenException(UsernameAlreadyTakenException ex) {
+        countException(ex);
         Map<String, String> response = Map.of("message", ex.getMessage());
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
@@ -70,6 +112,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(RefreshTokenNotFoundException.class)
     public ResponseEntity<Map<String, String>> handleRefreshTokenNotFoundException(RefreshTokenNotFoundException ex) {
+        countException(ex);
         Map<String, String> response = Map.of("message", ex.getMessage());
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
     }
@@ -82,6 +125,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ExpiredRefreshTokenException.class)
     public ResponseEntity<Map<String, String>> handleExpiredRefreshTokenException(ExpiredRefreshTokenException ex) {
+        countException(ex);
         Map<String, String> response = Map.of("message", ex.getMessage());
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
@@ -94,7 +138,60 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(JwtAndRefreshTokenMismatchException.class)
     public ResponseEntity<Map<String, String>> handleJwtAndRefreshTokenMismatchException(JwtAndRefreshTokenMismatchException ex) {
+        countException(ex);
         Map<String, String> response = Map.of("message", ex.getMessage());
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
+
+    /**
+     * Handles PasswordHashingUnavailableException thrown when the password hashing queue is full.
+     *
+     * @param ex The exception instance.
+     * @return ResponseEntity with error message and HTTP status SERVICE_UNAVAILABLE.
+     */
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException ex) {
+        countException(ex);
+        Map<String, String> response = Map.of("message", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handles DatabaseBusyException thrown when the database bulkhead is saturated,
+     * including when it is wrapped by the transaction or persistence layer.
+     *
+     * @param ex The exception instance.
+     * @return ResponseEntity with error message and HTTP status SERVICE_UNAVAILABLE.
+     */
+    @ExceptionHandler(DatabaseBusyException.class)
+    public ResponseEntity<Map<String, String>> handleDatabaseBusyException(DatabaseBusyException ex) {
+        countException(ex);
+        Map<String, String> response = Map.of("message", ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    /**
+     * Handles RateLimitExceededException thrown when a client makes too many authentication attempts.
+     *
+     * @param ex The exception instance.
+     * @return ResponseEntity with error message, a Retry-After header in seconds and HTTP status TOO_MANY_REQUESTS.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String, String>> handleRateLimitExceededException(RateLimitExceededException ex) {
+        countException(ex);
+        Map<String, String> response = Map.of("message", ex.getMessage());
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response);
+    }
+
+    /**
+     * Counts a handled exception, tagged with its type.
+     *
+     * @param ex The exception instance.
+     */
+    private void countException(Exception ex) {
+        meterRegistry.counter(AuthMetrics.EXCEPTIONS_COUNTER, "exception", ex.getClass().getSimpleName()).increment();
+    }
 }
@@ -0,0 +1,23 @@
+package com.dmarts05.speedshield.exception;
+
+/**
+ * Exception thrown when a JWT token is invalid, expired or revoked.
+ */
+public class InvalidJwtException extends StacklessException {
+
+    /**
+     * Constructs a new InvalidJwtException with a default message.
+     */
+    public InvalidJwtException() {
+        super("Invalid JWT token");
+    }
+
+    /**
+     * Constructs a new InvalidJwtException with a specified message.
+     *
+     * @param message The detail message.
+     */
+    public InvalidJwtException(String message) {
+        super(message);
+    }
+}
@@ -3,7 +3,7 @@ package com.dmarts05.speedshield.exception;
 /**
  * Exception thrown when login credentials provided are invalid.
  */
-public class InvalidLoginException extends RuntimeException {
+public class InvalidLoginException extends StacklessException {
 
     /**
      * Constructs a new InvalidLoginException with a default message.
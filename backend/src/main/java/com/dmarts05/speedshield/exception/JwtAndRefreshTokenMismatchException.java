@@ -3,7 +3,7 @@ package com.dmarts05.speedshield.exception;
 /**
  * Exception thrown when a JWT and refresh token do not match.
  */
-public class JwtAndRefreshTokenMismatchException extends RuntimeException {
+public class JwtAndRefreshTokenMismatchException extends StacklessException {
 
     /**
      * Constructs a new JwtAndRefreshTokenMismatchException with a default message.
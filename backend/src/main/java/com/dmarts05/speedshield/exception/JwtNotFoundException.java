@@ -2,6 +2,7 @@ package com.dmarts05.speedshield.exception;
 
 /**
  * Exception thrown when a JWT token is not found in the request.
+ * Like {@link StacklessException}, it is created without a stack trace.
  */
 public class JwtNotFoundException extends Exception {
 
@@ -9,7 +10,7 @@ public class JwtNotFoundException extends Exception {
      * Constructs a new JwtNotFoundException with a default message.
      */
     public JwtNotFoundException() {
-        super("JWT token not found");
+        super("JWT token not found", null, false, false);
     }
 
     /**
@@ -18,6 +19,6 @@ public class JwtNotFoundException extends Exception {
      * @param message The detail message.
      */
     public JwtNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
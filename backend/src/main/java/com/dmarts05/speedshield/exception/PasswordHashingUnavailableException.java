@@ -0,0 +1,23 @@
+package com.dmarts05.speedshield.exception;
+
+/**
+ * Exception thrown when a password cannot be hashed or verified because the hashing queue is full.
+ */
+public class PasswordHashingUnavailableException extends StacklessException {
+
+    /**
+     * Constructs a new PasswordHashingUnavailableException with a default message.
+     */
+    public PasswordHashingUnavailableException() {
+        super("Too many authentication requests, try again later");
+    }
+
+    /**
+     * Constructs a new PasswordHashingUnavailableException with a specified message.
+     *
+     * @param message The detail message.
+     */
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
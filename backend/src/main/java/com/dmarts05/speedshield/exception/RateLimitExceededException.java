@@ -0,0 +1,39 @@
+package com.dmarts05.speedshield.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a client exceeds the allowed rate of authentication attempts.
+ */
+public class RateLimitExceededException extends StacklessException {
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a new RateLimitExceededException with a default message.
+     *
+     * @param retryAfter Time after which the client may try again.
+     */
+    public RateLimitExceededException(Duration retryAfter) {
+        this("Too many attempts, try again later", retryAfter);
+    }
+
+    /**
+     * Constructs a new RateLimitExceededException with a specified message.
+     *
+     * @param message    The detail message.
+     * @param retryAfter Time after which the client may try again.
+     */
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Retrieves the time after which the client may try again.
+     *
+     * @return Time to wait before the next attempt.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
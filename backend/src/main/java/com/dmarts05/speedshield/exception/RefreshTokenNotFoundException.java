@@ -3,7 +3,7 @@ package com.dmarts05.speedshield.exception;
 /**
  * Exception thrown when a refresh token is not found.
  */
-public class RefreshTokenNotFoundException extends RuntimeException {
+public class RefreshTokenNotFoundException extends StacklessException {
 
     /**
      * Constructs a new RefreshTokenNotFoundException with a default message.
@@ -0,0 +1,18 @@
+package com.dmarts05.speedshield.exception;
+
+/**
+ * Base class of the exceptions that signal an expected outcome, such as invalid credentials or a full queue,
+ * to {@link GlobalExceptionHandler}. They are thrown on hot paths and never logged, so they skip capturing
+ * a stack trace, which is by far the most expensive part of creating an exception.
+ */
+public abstract class StacklessException extends RuntimeException {
+
+    /**
+     * Constructs a new StacklessException with a specified message and no stack trace.
+     *
+     * @param message The detail message.
+     */
+    protected StacklessException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -3,7 +3,7 @@ package com.dmarts05.speedshield.exception;
 /**
  * Exception thrown when a user is not found in the database.
  */
-public class UserNotFoundException extends RuntimeException {
+public class UserNotFoundException extends StacklessException {
 
     /**
      * Constructs a new UsernameAlreadyTakenException with a default message.
@@ -3,7 +3,7 @@ package com.dmarts05.speedshield.exception;
 /**
  * Exception thrown when attempting to use a username that is already taken.
  */
-public class UsernameAlreadyTakenException extends RuntimeException {
+public class UsernameAlreadyTakenException extends StacklessException {
 
     /**
      * Constructs a new UsernameAlreadyTakenException with a default message.
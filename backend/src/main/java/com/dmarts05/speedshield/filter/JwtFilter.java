@@ -1,9 +1,13 @@
 package com.dmarts05.speedshield.filter;
 
-import com.dmarts05.speedshield.exception.JwtNotFoundException;
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.config.SecurityConfig;
+import com.dmarts05.speedshield.model.AuthenticatedUser;
 import com.dmarts05.speedshield.model.UserEntity;
 import com.dmarts05.speedshield.service.JwtService;
+import com.dmarts05.speedshield.service.TokenRevocationService;
 import com.dmarts05.speedshield.service.UserDetailsServiceImpl;
+import com.dmarts05.speedshield.service.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,25 +22,39 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * JWT filter for handling authentication and authorization.
  * This filter extracts JWT from the request, validates it, and sets up Spring Security's authentication context.
+ * Paths open to anonymous requests are skipped up front, and requests without a token pass through
+ * without allocating, since both are far more common than authenticated requests.
  */
 @Component
 public class JwtFilter extends OncePerRequestFilter {
+    private static final Set<String> PUBLIC_PATHS = Set.of(SecurityConfig.PUBLIC_PATHS);
+
     private final JwtService jwtService;
     private final UserDetailsServiceImpl userDetailsService;
+    private final JwtProperties jwtProperties;
+    private final TokenRevocationService tokenRevocationService;
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
+    private volatile String alreadyFilteredAttributeName;
 
     /**
      * Constructs a JwtFilter with required dependencies.
      *
-     * @param jwtService         Service for JWT operations.
-     * @param userDetailsService Service for loading user details.
+     * @param jwtService             Service for JWT operations.
+     * @param userDetailsService     Service for loading user details.
+     * @param jwtProperties          JWT properties configuration.
+     * @param tokenRevocationService Service for checking whether a token was revoked.
      */
-    public JwtFilter(JwtService jwtService, UserDetailsServiceImpl userDetailsService) {
+    public JwtFilter(JwtService jwtService, UserDetailsServiceImpl userDetailsService, JwtProperties jwtProperties, TokenRevocationService tokenRevocationService) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.jwtProperties = jwtProperties;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
@@ -50,10 +68,8 @@ public class JwtFilter extends OncePerRequestFilter {
      */
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
-        String token;
-        try {
-            token = jwtService.extractTokenFromHeader(request);
-        } catch (JwtNotFoundException e) {
+        String token = jwtService.resolveToken(request);
+        if (token == null) {
             // Proceed to next filter if JWT is not found
             filterChain.doFilter(request, response);
             return;
@@ -66,12 +82,28 @@ public class JwtFilter extends OncePerRequestFilter {
         }
 
 
+        // Parse and verify JWT token once, ignoring it if it was revoked
+        Optional<VerifiedToken> verifiedToken = jwtService.verifyToken(token);
+        if (verifiedToken.isEmpty() || tokenRevocationService.isRevoked(verifiedToken.get().getTokenId())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Authenticate straight from the token claims when no user lookup is required
+        if (jwtProperties.isStatelessAuthentication() && verifiedToken.get().hasUserClaims()) {
+            AuthenticatedUser authenticatedUser = new AuthenticatedUser(verifiedToken.get().getUserId(), verifiedToken.get().getSubject(), verifiedToken.get().getRole());
+            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(authenticatedUser, null, authenticatedUser.getRole().getAuthorities());
+            authenticationToken.setDetails(authenticationDetailsSource.buildDetails(request));
+            securityContext.setAuthentication(authenticationToken);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         // Load user details
-        String username = jwtService.extractUsername(token);
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        UserDetails userDetails = userDetailsService.loadUserByUsername(verifiedToken.get().getSubject());
 
         // Validate JWT Token
-        boolean isValid = jwtService.isTokenValid(token, (UserEntity) userDetails);
+        boolean isValid = jwtService.isTokenValid(verifiedToken.get(), (UserEntity) userDetails);
         if (!isValid) {
             filterChain.doFilter(request, response);
             return;
@@ -79,10 +111,42 @@ public class JwtFilter extends OncePerRequestFilter {
 
         // Create authentication token and set it in security context
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-        authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        authenticationToken.setDetails(authenticationDetailsSource.buildDetails(request));
         securityContext.setAuthentication(authenticationToken);
 
         // Proceed with filter chain after setting authentication
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Skips the paths open to anonymous requests, which never need an authentication.
+     *
+     * @param request HTTP request.
+     * @return True if the request path is open to anonymous requests, false otherwise.
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String requestUri = request.getRequestURI();
+        int contextPathLength = request.getContextPath().length();
+        if (requestUri.startsWith(SecurityConfig.AUTH_PATH_PREFIX, contextPathLength)) {
+            return true;
+        }
+        return PUBLIC_PATHS.contains(contextPathLength == 0 ? requestUri : requestUri.substring(contextPathLength));
+    }
+
+    /**
+     * Caches the name of the request attribute marking the request as filtered, which the superclass
+     * would otherwise concatenate on every request. The filter name is only known once the filter is initialized.
+     *
+     * @return Name of the request attribute marking the request as filtered.
+     */
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        String name = alreadyFilteredAttributeName;
+        if (name == null) {
+            name = super.getAlreadyFilteredAttributeName();
+            alreadyFilteredAttributeName = name;
+        }
+        return name;
+    }
 }
@@ -0,0 +1,139 @@
+package com.dmarts05.speedshield.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Offline analyzer summarizing a flight recording into per-stage latency percentiles and allocation totals.
+ * Run it against a recording made with {@code jfr/speedshield.jfc}:
+ * {@code java -cp speedshield.jar -Dloader.main=com.dmarts05.speedshield.jfr.JfrRecordingAnalyzer
+ * org.springframework.boot.loader.launch.PropertiesLauncher speedshield.jfr}
+ */
+public final class JfrRecordingAnalyzer {
+    private static final Set<String> STAGE_EVENTS = Set.of(JwtVerifyEvent.NAME, JwtSignEvent.NAME, PasswordHashEvent.NAME, RepositoryCallEvent.NAME);
+    private static final String ALLOCATION_SAMPLE_EVENT = "jdk.ObjectAllocationSample";
+    private static final String THREAD_ALLOCATION_EVENT = "jdk.ThreadAllocationStatistics";
+    private static final int TOP_ALLOCATED_CLASSES = 10;
+
+    private JfrRecordingAnalyzer() {
+    }
+
+    /**
+     * Latency summary of a single stage.
+     *
+     * @param stage Name of the stage.
+     * @param count Number of recorded events.
+     * @param p50   Median duration.
+     * @param p90   90th percentile duration.
+     * @param p99   99th percentile duration.
+     * @param max   Maximum duration.
+     */
+    public record StageSummary(String stage, int count, Duration p50, Duration p90, Duration p99, Duration max) {
+    }
+
+    /**
+     * Summary of a whole recording.
+     *
+     * @param stages               Latency summary of every stage, by stage name.
+     * @param allocatedBytes       Bytes allocated by all threads during the recording.
+     * @param topAllocatedClasses  Classes with the largest sampled allocation weight, in bytes, largest first.
+     */
+    public record Summary(Map<String, StageSummary> stages, long allocatedBytes, Map<String, Long> topAllocatedClasses) {
+    }
+
+    /**
+     * Summarizes the recording given as the only argument on standard output.
+     *
+     * @param args Path of the recording.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: JfrRecordingAnalyzer <recording.jfr>");
+            System.exit(1);
+        }
+        System.out.print(format(analyze(Path.of(args[0]))));
+    }
+
+    /**
+     * Reads a recording and summarizes its stage events and allocations.
+     *
+     * @param recording Path of the recording.
+     * @return Summary of the recording.
+     * @throws IOException If the recording cannot be read.
+     */
+    public static Summary analyze(Path recording) throws IOException {
+        Map<String, List<Long>> durations = new TreeMap<>();
+        Map<String, Long> allocatedByClass = new HashMap<>();
+        Map<Long, Long> allocatedByThread = new HashMap<>();
+        try (RecordingFile recordingFile = new RecordingFile(recording)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                String name = event.getEventType().getName();
+                if (STAGE_EVENTS.contains(name)) {
+                    durations.computeIfAbsent(stageOf(event), stage -> new ArrayList<>()).add(event.getDuration().toNanos());
+                } else if (name.equals(ALLOCATION_SAMPLE_EVENT) && event.getClass("objectClass") != null) {
+                    allocatedByClass.merge(event.getClass("objectClass").getName(), event.getLong("weight"), Long::sum);
+                } else if (name.equals(THREAD_ALLOCATION_EVENT) && event.getThread("thread") != null) {
+                    // Allocation statistics are cumulative per thread, so only the latest value counts
+                    allocatedByThread.merge(event.getThread("thread").getId(), event.getLong("allocated"), Math::max);
+                }
+            }
+        }
+
+        Map<String, StageSummary> stages = new LinkedHashMap<>();
+        durations.forEach((stage, stageDurations) -> stages.put(stage, summarize(stage, stageDurations)));
+        Map<String, Long> topAllocatedClasses = allocatedByClass.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(TOP_ALLOCATED_CLASSES)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        long allocatedBytes = allocatedByThread.values().stream().mapToLong(Long::longValue).sum();
+
+        return new Summary(stages, allocatedBytes, topAllocatedClasses);
+    }
+
+    /**
+     * Formats a summary as a plain text report.
+     *
+     * @param summary Summary of a recording.
+     * @return Plain text report.
+     */
+    public static String format(Summary summary) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-50s %8s %12s %12s %12s %12s%n", "Stage", "Count", "p50 (us)", "p90 (us)", "p99 (us)", "max (us)"));
+        summary.stages().values().forEach(stage -> report.append(String.format("%-50s %8d %12.1f %12.1f %12.1f %12.1f%n",
+                stage.stage(), stage.count(), micros(stage.p50()), micros(stage.p90()), micros(stage.p99()), micros(stage.max()))));
+        report.append(String.format("%nAllocated: %,d bytes%n", summary.allocatedBytes()));
+        summary.topAllocatedClasses().forEach((type, bytes) -> report.append(String.format("  %-70s %,16d bytes (sampled)%n", type, bytes)));
+        return report.toString();
+    }
+
+    private static String stageOf(RecordedEvent event) {
+        return switch (event.getEventType().getName()) {
+            case RepositoryCallEvent.NAME -> "RepositoryCall " + event.getString("repository") + "." + event.getString("method");
+            case PasswordHashEvent.NAME -> "PasswordHash " + event.getString("operation");
+            default -> event.getEventType().getLabel();
+        };
+    }
+
+    private static StageSummary summarize(String stage, List<Long> durations) {
+        long[] sorted = durations.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new StageSummary(stage, sorted.length, percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                Duration.ofNanos(sorted[sorted.length - 1]));
+    }
+
+    private static Duration percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return Duration.ofNanos(sorted[Math.max(rank - 1, 0)]);
+    }
+
+    private static double micros(Duration duration) {
+        return duration.toNanos() / 1_000.0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.dmarts05.speedshield.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event emitted when a JWT is built and signed.
+ */
+@Name(JwtSignEvent.NAME)
+@Label("JWT Sign")
+@Category({"Speedshield", "Authentication"})
+@Description("Building and signing of a JWT")
+@StackTrace(false)
+public class JwtSignEvent extends Event {
+    /**
+     * Name of the event in recordings.
+     */
+    public static final String NAME = "com.dmarts05.speedshield.JwtSign";
+
+    @Label("Token Length")
+    @DataAmount(DataAmount.BYTES)
+    public int tokenLength;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,25 @@
+package com.dmarts05.speedshield.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event emitted when a JWT is parsed and its signature verified.
+ */
+@Name(JwtVerifyEvent.NAME)
+@Label("JWT Verify")
+@Category({"Speedshield", "Authentication"})
+@Description("Parsing and signature verification of a JWT")
+@StackTrace(false)
+public class JwtVerifyEvent extends Event {
+    /**
+     * Name of the event in recordings.
+     */
+    public static final String NAME = "com.dmarts05.speedshield.JwtVerify";
+
+    @Label("Token Length")
+    @DataAmount(DataAmount.BYTES)
+    public int tokenLength;
+
+    @Label("Outcome")
+    public String outcome;
+}
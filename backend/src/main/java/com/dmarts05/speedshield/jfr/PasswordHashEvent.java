@@ -0,0 +1,25 @@
+package com.dmarts05.speedshield.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event emitted when a password is hashed or verified against its hash,
+ * measured on the hashing thread so that the duration excludes the wait for a thread.
+ */
+@Name(PasswordHashEvent.NAME)
+@Label("Password Hash")
+@Category({"Speedshield", "Authentication"})
+@Description("Hashing of a password or verification of a password against its hash")
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+    /**
+     * Name of the event in recordings.
+     */
+    public static final String NAME = "com.dmarts05.speedshield.PasswordHash";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,27 @@
+package com.dmarts05.speedshield.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event emitted for every call to a Spring Data repository.
+ */
+@Name(RepositoryCallEvent.NAME)
+@Label("Repository Call")
+@Category({"Speedshield", "Persistence"})
+@Description("Call to a Spring Data repository method")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+    /**
+     * Name of the event in recordings.
+     */
+    public static final String NAME = "com.dmarts05.speedshield.RepositoryCall";
+
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,46 @@
+package com.dmarts05.speedshield.jfr;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Interceptor emitting a {@link RepositoryCallEvent} around every repository method call.
+ * When the event is disabled in the running recording, the call proceeds without any bookkeeping.
+ */
+public class RepositoryCallEventInterceptor implements MethodInterceptor {
+    private final String repository;
+
+    /**
+     * Constructs a RepositoryCallEventInterceptor for the given repository.
+     *
+     * @param repositoryInterface Interface of the intercepted repository.
+     */
+    public RepositoryCallEventInterceptor(Class<?> repositoryInterface) {
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        event.begin();
+        String outcome = "success";
+        try {
+            return invocation.proceed();
+        } catch (Throwable t) {
+            outcome = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = repository;
+                event.method = invocation.getMethod().getName();
+                event.outcome = outcome;
+                event.commit();
+            }
+        }
+    }
+}
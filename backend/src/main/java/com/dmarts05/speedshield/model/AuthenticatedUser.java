@@ -0,0 +1,39 @@
+package com.dmarts05.speedshield.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Lightweight principal built from the claims of a verified JWT, used when authenticating without a user lookup.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public class AuthenticatedUser implements AuthenticatedPrincipal {
+    /**
+     * The unique identifier of the user.
+     */
+    private final Long id;
+
+    /**
+     * The username of the user.
+     */
+    private final String username;
+
+    /**
+     * The role of the user.
+     */
+    private final Role role;
+
+    /**
+     * Returns the name of the principal, which is the username.
+     *
+     * @return Username of the user.
+     */
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -16,13 +16,15 @@ import java.time.Instant;
 @Builder
 @Data
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date"))
 public class RefreshTokenEntity {
     /**
-     * Primary key identifier for the refresh token.
+     * Primary key identifier for the refresh token, allocated from a pooled sequence
+     * so that batched inserts only fetch a new block of ids every 50 rows.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_entity_seq")
+    @SequenceGenerator(name = "refresh_token_entity_seq", sequenceName = "refresh_token_entity_seq", allocationSize = 50)
     private Long id;
 
     /**
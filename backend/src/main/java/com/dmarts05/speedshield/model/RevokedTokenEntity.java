@@ -0,0 +1,42 @@
+package com.dmarts05.speedshield.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Entity class representing a revoked access token, kept until the token would have expired anyway.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expiry_date", columnList = "expiry_date"),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at")
+})
+public class RevokedTokenEntity {
+    /**
+     * Identifier ("jti" claim) of the revoked token.
+     */
+    @Id
+    @Column(length = 36)
+    private String tokenId;
+
+    /**
+     * Expiry date and time of the revoked token, after which it no longer needs to be denied.
+     */
+    @Column(nullable = false)
+    private Instant expiryDate;
+
+    /**
+     * Date and time at which the token was revoked.
+     */
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
@@ -3,10 +3,26 @@
  */
 package com.dmarts05.speedshield.model;
 
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Set;
+
 /**
  * Enum defining roles available for users.
  */
+@Getter
 public enum Role {
     USER,
-    ADMIN
+    ADMIN,
+    /**
+     * Role of the API gateways, which may introspect the tokens of other users.
+     */
+    GATEWAY;
+
+    /**
+     * Authorities granted by the role, shared by every user with the role.
+     */
+    private final Set<GrantedAuthority> authorities = Set.of(new SimpleGrantedAuthority(name()));
 }
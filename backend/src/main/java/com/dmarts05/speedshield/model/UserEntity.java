@@ -5,8 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
@@ -21,7 +24,19 @@ import java.util.Set;
 @Data
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = UserEntity.CACHE_REGION)
+@NaturalIdCache(region = UserEntity.NATURAL_ID_CACHE_REGION)
 public class UserEntity implements UserDetails {
+    /**
+     * Second-level cache region holding users by id.
+     */
+    public static final String CACHE_REGION = "users";
+
+    /**
+     * Second-level cache region resolving usernames to user ids.
+     */
+    public static final String NATURAL_ID_CACHE_REGION = "users-by-username";
+
     /**
      * The unique identifier for the user.
      */
@@ -36,8 +51,9 @@ public class UserEntity implements UserDetails {
     private String name;
 
     /**
-     * The username of the user.
+     * The username of the user, used as natural id.
      */
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String username;
 
@@ -64,6 +80,6 @@ public class UserEntity implements UserDetails {
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return Set.of(new SimpleGrantedAuthority(this.role.name()));
+        return this.role.getAuthorities();
     }
 }
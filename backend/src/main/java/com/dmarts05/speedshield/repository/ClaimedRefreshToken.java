@@ -0,0 +1,22 @@
+package com.dmarts05.speedshield.repository;
+
+import java.time.Instant;
+
+/**
+ * Projection of a refresh token row deleted while being claimed for rotation.
+ */
+public interface ClaimedRefreshToken {
+    /**
+     * Retrieves the id of the user the refresh token was issued to.
+     *
+     * @return User id.
+     */
+    Long getUserId();
+
+    /**
+     * Retrieves the expiry date of the refresh token.
+     *
+     * @return Expiry date.
+     */
+    Instant getExpiryDate();
+}
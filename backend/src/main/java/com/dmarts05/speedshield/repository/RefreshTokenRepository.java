@@ -1,15 +1,63 @@
 package com.dmarts05.speedshield.repository;
 
 import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends ListCrudRepository<RefreshTokenEntity, Long> {
     Optional<RefreshTokenEntity> findByToken(String token);
 
-    void deleteAllByExpiryDateBefore(Instant limitDate);
+    /**
+     * Deletes up to the given number of refresh tokens that expired before the limit date, in a single statement.
+     * The expired rows are located through the expiry date index without being loaded into memory.
+     *
+     * @param limitDate Refresh tokens expiring before this instant are deleted.
+     * @param chunkSize Maximum number of refresh tokens to delete.
+     * @return Number of refresh tokens deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE id IN (SELECT id FROM refresh_tokens WHERE expiry_date < :limitDate LIMIT :chunkSize)", nativeQuery = true)
+    int deleteExpiredChunk(@Param("limitDate") Instant limitDate, @Param("chunkSize") int chunkSize);
+
+    /**
+     * Deletes the refresh token and returns what was deleted, in a single statement.
+     * Only one of several concurrent claims of the same token gets a result.
+     *
+     * @param token Token string of the refresh token to claim.
+     * @return The claimed refresh token, or empty if it does not exist or was already claimed.
+     */
+    @Transactional
+    @Query(value = "DELETE FROM refresh_tokens WHERE token = :token RETURNING user_id AS userId, expiry_date AS expiryDate", nativeQuery = true)
+    Optional<ClaimedRefreshToken> claimByToken(@Param("token") String token);
+
+    /**
+     * Retrieves the refresh tokens expiring after the given instant, without loading their users.
+     *
+     * @param now Refresh tokens expiring after this instant are retrieved.
+     * @return The unexpired refresh tokens.
+     */
+    @Query(value = "SELECT token, user_id AS userId, expiry_date AS expiryDate FROM refresh_tokens WHERE expiry_date > :now", nativeQuery = true)
+    List<StoredRefreshToken> findAllUnexpired(@Param("now") Instant now);
+
+    /**
+     * Deletes the refresh tokens with the given token strings, in a single statement.
+     *
+     * @param tokens Token strings of the refresh tokens to delete.
+     * @return Number of refresh tokens deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE token IN (:tokens)", nativeQuery = true)
+    int deleteAllByTokens(@Param("tokens") Collection<String> tokens);
 }
@@ -0,0 +1,42 @@
+package com.dmarts05.speedshield.repository;
+
+import com.dmarts05.speedshield.model.RevokedTokenEntity;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends ListCrudRepository<RevokedTokenEntity, String> {
+    /**
+     * Finds the revoked tokens that have not expired yet.
+     *
+     * @param now Current instant.
+     * @return Revoked tokens expiring after the current instant.
+     */
+    List<RevokedTokenEntity> findAllByExpiryDateAfter(Instant now);
+
+    /**
+     * Finds the tokens revoked after the given instant, including those revoked by other instances.
+     *
+     * @param since Instant after which the tokens were revoked.
+     * @return Tokens revoked after the given instant.
+     */
+    List<RevokedTokenEntity> findAllByRevokedAtAfter(Instant since);
+
+    /**
+     * Deletes the revoked tokens that expired before the limit date, in a single statement.
+     *
+     * @param limitDate Revoked tokens expiring before this instant are deleted.
+     * @return Number of revoked tokens deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM revoked_tokens WHERE expiry_date < :limitDate", nativeQuery = true)
+    int deleteExpired(@Param("limitDate") Instant limitDate);
+}
@@ -0,0 +1,13 @@
+package com.dmarts05.speedshield.repository;
+
+/**
+ * Projection of a stored refresh token row, used to load the refresh tokens into memory.
+ */
+public interface StoredRefreshToken extends ClaimedRefreshToken {
+    /**
+     * Retrieves the token string of the refresh token.
+     *
+     * @return Token string.
+     */
+    String getToken();
+}
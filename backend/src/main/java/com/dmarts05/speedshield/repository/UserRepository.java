@@ -4,11 +4,7 @@ import com.dmarts05.speedshield.model.UserEntity;
 import org.springframework.data.repository.ListCrudRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
-
 @Repository
-public interface UserRepository extends ListCrudRepository<UserEntity, Long> {
-    Optional<UserEntity> findByUsername(String username);
-
+public interface UserRepository extends ListCrudRepository<UserEntity, Long>, UserRepositoryCustom {
     boolean existsByUsername(String username);
 }
@@ -0,0 +1,18 @@
+package com.dmarts05.speedshield.repository;
+
+import com.dmarts05.speedshield.model.UserEntity;
+
+import java.util.Optional;
+
+/**
+ * Custom user repository operations that are not derived by Spring Data.
+ */
+public interface UserRepositoryCustom {
+    /**
+     * Retrieves a user by username through its natural id, served from the second-level cache when possible.
+     *
+     * @param username Username of the user to retrieve.
+     * @return The user, or empty if no user has the username.
+     */
+    Optional<UserEntity> findByUsername(String username);
+}
@@ -0,0 +1,54 @@
+package com.dmarts05.speedshield.repository;
+
+import com.dmarts05.speedshield.model.UserEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import java.util.Optional;
+
+/**
+ * Implementation of the custom user repository operations.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Constructs a UserRepositoryImpl with the entity manager factory.
+     *
+     * @param entityManagerFactory Factory of the entity managers used to access the Hibernate session.
+     */
+    public UserRepositoryImpl(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Retrieves a user by username through its natural id. Outside a transaction no transaction is opened, so that
+     * a lookup answered by the natural-id and second-level caches neither borrows a connection nor takes a database
+     * bulkhead permit; Hibernate only acquires a connection once a cache miss has to query the database.
+     *
+     * @param username Username of the user to retrieve.
+     * @return The user, or empty if no user has the username.
+     */
+    @Override
+    public Optional<UserEntity> findByUsername(String username) {
+        EntityManager transactionalEntityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (transactionalEntityManager != null) {
+            return findByUsername(transactionalEntityManager, username);
+        }
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return findByUsername(entityManager, username);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static Optional<UserEntity> findByUsername(EntityManager entityManager, String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(UserEntity.class)
+                .loadOptional(username);
+    }
+}
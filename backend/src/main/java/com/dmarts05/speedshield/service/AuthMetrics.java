@@ -0,0 +1,80 @@
+package com.dmarts05.speedshield.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Names of the meters recorded along the authentication pipeline.
+ * Every stage is timed under a single timer name, tagged with the stage, and publishes a percentile histogram
+ * so that latency quantiles can be aggregated across instances.
+ */
+public final class AuthMetrics {
+    /**
+     * Name of the timer recording the time spent in each authentication stage.
+     */
+    public static final String STAGE_TIMER = "auth.stage";
+
+    /**
+     * Name of the counter recording the exceptions turned into error responses.
+     */
+    public static final String EXCEPTIONS_COUNTER = "auth.exceptions";
+
+    /**
+     * Stage verifying a password against its hash, including the wait for a hashing thread.
+     */
+    public static final String PASSWORD_VERIFICATION = "password_verification";
+
+    /**
+     * Stage loading a user by username.
+     */
+    public static final String USER_LOOKUP = "user_lookup";
+
+    /**
+     * Stage building and signing a JWT.
+     */
+    public static final String JWT_SIGNING = "jwt_signing";
+
+    /**
+     * Stage parsing a JWT and verifying its signature and expiration.
+     */
+    public static final String JWT_VERIFICATION = "jwt_verification";
+
+    /**
+     * Stage inserting a new refresh token.
+     */
+    public static final String REFRESH_TOKEN_INSERT = "refresh_token_insert";
+
+    /**
+     * Stage deleting (claiming) a refresh token being rotated.
+     */
+    public static final String REFRESH_TOKEN_DELETE = "refresh_token_delete";
+
+    /**
+     * Stage rotating a refresh token as a whole, from validation to the insert of its replacement.
+     */
+    public static final String REFRESH_TOKEN_ROTATE = "refresh_token_rotate";
+
+    /**
+     * Stage issuing the JWT and refresh token of a login or refresh, with the JWT signing and the refresh token write
+     * running concurrently. Its latency tracks the slower of the two rather than their sum.
+     */
+    public static final String TOKEN_ISSUANCE = "token_issuance";
+
+    private AuthMetrics() {
+    }
+
+    /**
+     * Registers, or retrieves if already registered, the timer of an authentication stage.
+     *
+     * @param meterRegistry Registry holding the timer.
+     * @param stage         Name of the stage.
+     * @return Timer of the stage.
+     */
+    public static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time spent in each stage of the authentication pipeline")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -1,18 +1,26 @@
 package com.dmarts05.speedshield.service;
 
 import com.dmarts05.speedshield.dto.*;
+import com.dmarts05.speedshield.exception.DatabaseBusyException;
+import com.dmarts05.speedshield.exception.InvalidJwtException;
 import com.dmarts05.speedshield.exception.InvalidLoginException;
 import com.dmarts05.speedshield.exception.UsernameAlreadyTakenException;
 import com.dmarts05.speedshield.model.RefreshTokenEntity;
 import com.dmarts05.speedshield.model.Role;
 import com.dmarts05.speedshield.model.UserEntity;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.function.Supplier;
+
 /**
  * Service class that handles authentication and user registration operations.
  */
@@ -23,30 +31,39 @@ public class AuthService {
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
+    private final Timer tokenIssuanceTimer;
 
     /**
      * Constructs an AuthService with required dependencies.
      *
-     * @param authenticationManager Authentication manager for handling authentication requests.
-     * @param passwordEncoder       Password encoder for encoding passwords.
-     * @param jwtService            Service for handling JWT operations.
-     * @param refreshTokenService   Service for handling refresh token operations.
-     * @param userService           Service for handling user-related operations.
+     * @param authenticationManager  Authentication manager for handling authentication requests.
+     * @param passwordEncoder        Password encoder for encoding passwords.
+     * @param jwtService             Service for handling JWT operations.
+     * @param refreshTokenService    Service for handling refresh token operations.
+     * @param userService            Service for handling user-related operations.
+     * @param tokenRevocationService Service for revoking access tokens.
+     * @param meterRegistry          Registry for the token issuance timer.
      */
-    public AuthService(AuthenticationManager authenticationManager, PasswordEncoder passwordEncoder, JwtService jwtService, RefreshTokenService refreshTokenService, UserService userService) {
+    public AuthService(AuthenticationManager authenticationManager, PasswordEncoder passwordEncoder, JwtService jwtService, RefreshTokenService refreshTokenService, UserService userService, TokenRevocationService tokenRevocationService, MeterRegistry meterRegistry) {
         this.authenticationManager = authenticationManager;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.refreshTokenService = refreshTokenService;
         this.userService = userService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.tokenIssuanceTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.TOKEN_ISSUANCE);
     }
 
     /**
      * Authenticates a user based on login credentials and generates JWT and refresh tokens.
+     * The user loaded while checking the password is reused to issue the tokens, so a login costs a single user query
+     * followed by the refresh token insert, which runs concurrently with the JWT signing.
      *
      * @param loginRequestDto Login request containing username and password.
      * @return JwtResponseDto containing generated JWT and refresh tokens.
      * @throws InvalidLoginException If authentication fails.
+     * @throws DatabaseBusyException  If the user could not be loaded because the database bulkhead is saturated.
      */
     public JwtResponseDto login(LoginRequestDto loginRequestDto) {
         try {
@@ -55,12 +72,27 @@ public class AuthService {
                 throw new InvalidLoginException();
             }
 
-            UserEntity userEntity = userService.findByUsername(loginRequestDto.getUsername());
-
-            String token = jwtService.generateToken(userEntity);
-            String refreshToken = refreshTokenService.generateRefreshToken(userEntity);
+            // The principal is the user loaded by the authentication manager, so it is not queried again
+            UserEntity userEntity = authentication.getPrincipal() instanceof UserEntity principal
+                    ? principal
+                    : userService.findByUsername(authentication.getName());
 
-            return new JwtResponseDto(token, refreshToken);
+            return tokenIssuanceTimer.record(() -> {
+                try (StageScope scope = new StageScope()) {
+                    Supplier<String> token = scope.fork(() -> jwtService.generateToken(userEntity));
+                    Supplier<String> refreshToken = scope.fork(() -> refreshTokenService.generateRefreshToken(userEntity));
+                    scope.join();
+                    return new JwtResponseDto(token.get(), refreshToken.get());
+                }
+            });
+        } catch (InternalAuthenticationServiceException e) {
+            // The user could not be loaded, which says nothing about the credentials, so it is not a failed login
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof DatabaseBusyException databaseBusyException) {
+                    throw databaseBusyException;
+                }
+            }
+            throw e;
         } catch (AuthenticationException e) {
             throw new InvalidLoginException();
         }
@@ -92,22 +124,43 @@ public class AuthService {
 
     /**
      * Generates a new JWT and refresh token based on a valid refresh token.
+     * The new JWT is signed concurrently with the refresh token rotation, and discarded if the rotation fails.
      *
      * @param refreshTokenRequestDto Refresh token request containing token and refresh token.
      * @return JwtResponseDto containing new JWT and refresh tokens.
+     * @throws InvalidJwtException If the JWT token was revoked.
      */
     public JwtResponseDto refreshToken(RefreshTokenRequestDto refreshTokenRequestDto) {
-        refreshTokenService.validateRefreshToken(refreshTokenRequestDto.getToken(), refreshTokenRequestDto.getRefreshToken());
-        RefreshTokenEntity refreshTokenEntity = refreshTokenService.findByToken(refreshTokenRequestDto.getRefreshToken());
-        UserEntity userEntity = refreshTokenEntity.getUserEntity();
+        // A revoked token must not be traded for a fresh one
+        Claims claims = jwtService.extractAllClaims(refreshTokenRequestDto.getToken());
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            throw new InvalidJwtException();
+        }
+        UserEntity userEntity = userService.findByUsername(claims.getSubject());
 
-        String token = jwtService.generateToken(userEntity);
-        String refreshToken = refreshTokenService.generateRefreshToken(userEntity);
-        JwtResponseDto jwtResponseDto = new JwtResponseDto(token, refreshToken);
+        return tokenIssuanceTimer.record(() -> {
+            try (StageScope scope = new StageScope()) {
+                Supplier<String> token = scope.fork(() -> jwtService.generateToken(userEntity));
+                // Replace the old refresh token with a new one in a single transaction
+                Supplier<RefreshTokenEntity> refreshTokenEntity = scope.fork(() -> refreshTokenService.rotateRefreshToken(userEntity, refreshTokenRequestDto.getRefreshToken()));
+                scope.join();
+                return new JwtResponseDto(token.get(), refreshTokenEntity.get().getToken());
+            }
+        });
+    }
 
-        // Remove old refresh token
-        refreshTokenService.delete(refreshTokenEntity);
+    /**
+     * Revokes a JWT token, so that it is rejected until it expires.
+     *
+     * @param token JWT token to revoke.
+     * @throws InvalidJwtException If the JWT token is invalid, expired or cannot be revoked.
+     */
+    public void revokeToken(String token) {
+        VerifiedToken verifiedToken = jwtService.verifyToken(token).orElseThrow(InvalidJwtException::new);
+        if (verifiedToken.getTokenId() == null) {
+            throw new InvalidJwtException("JWT token cannot be revoked");
+        }
 
-        return jwtResponseDto;
+        tokenRevocationService.revoke(verifiedToken.getTokenId(), verifiedToken.getExpiration());
     }
 }
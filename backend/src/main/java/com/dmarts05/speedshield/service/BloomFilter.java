@@ -0,0 +1,82 @@
+package com.dmarts05.speedshield.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter answering whether a key may have been added, in a fixed amount of memory.
+ * It may answer "maybe" for a key that was never added but never answers "no" for a key that was,
+ * so a negative answer is definitive. Keys are added lock-free and cannot be removed.
+ */
+public class BloomFilter {
+    private final int bitCount;
+    private final int hashCount;
+    private final long seed;
+    private final AtomicLongArray bits;
+
+    /**
+     * Constructs a BloomFilter sized for the expected number of keys and false positive probability,
+     * with randomly seeded hashing, so that colliding keys cannot be precomputed.
+     *
+     * @param expectedInsertions       Number of keys the filter is sized for.
+     * @param falsePositiveProbability Probability of answering "maybe" for a key never added, once full.
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+        int insertions = Math.max(1, expectedInsertions);
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE / Long.SIZE, Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE));
+        this.bitCount = words * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / insertions * Math.log(2)));
+        this.seed = ThreadLocalRandom.current().nextLong();
+        this.bits = new AtomicLongArray(words);
+    }
+
+    /**
+     * Adds the key to the filter.
+     *
+     * @param key Key to add.
+     */
+    public void add(String key) {
+        long hash = SeededHash.hash(key, seed);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(hash, i);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndUpdate(word, value -> value | mask);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the key may have been added to the filter.
+     *
+     * @param key Key to check.
+     * @return False if the key was definitely never added, true if it may have been.
+     */
+    public boolean mightContain(String key) {
+        long hash = SeededHash.hash(key, seed);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = index(hash, i);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the memory used by the bits.
+     *
+     * @return Size of the bits in bytes.
+     */
+    public long sizeInBytes() {
+        return (long) bits.length() * Long.BYTES;
+    }
+
+    private int index(long hash, int i) {
+        // Double hashing derives each probe from a single 64-bit hash
+        int probeHash = (int) hash + i * (int) (hash >>> 32);
+        return Math.floorMod(probeHash, bitCount);
+    }
+}
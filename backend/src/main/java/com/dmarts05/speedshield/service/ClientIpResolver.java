@@ -0,0 +1,88 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.ClientIpProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Service class that resolves the address of the client making a request, so that per-client limits apply to the
+ * client rather than to the reverse proxy in front of the application.
+ * The X-Forwarded-For header is only followed through the trusted proxies: it is read from right to left, skipping
+ * the trusted proxies, and the first other address is the client. Addresses a client prepends itself are never reached.
+ */
+@Service
+public class ClientIpResolver {
+    static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+    private static final Pattern IPV4_ADDRESS = Pattern.compile("((25[0-5]|2[0-4]\\d|1?\\d?\\d)\\.){3}(25[0-5]|2[0-4]\\d|1?\\d?\\d)");
+    private static final Pattern IPV6_ADDRESS = Pattern.compile("[0-9a-fA-F:.]*:[0-9a-fA-F:.]*");
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    /**
+     * Constructs a ClientIpResolver with the required dependencies.
+     *
+     * @param clientIpProperties Client IP properties configuration.
+     */
+    public ClientIpResolver(ClientIpProperties clientIpProperties) {
+        this.trustedProxies = clientIpProperties.getTrustedProxies().stream().map(IpAddressMatcher::new).toList();
+    }
+
+    /**
+     * Resolves the address of the client making a request.
+     *
+     * @param request The HTTP request.
+     * @return Address of the client, or of the last proxy if the forwarded addresses cannot be trusted.
+     */
+    public String resolve(HttpServletRequest request) {
+        String clientIp = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor == null || !isTrustedProxy(clientIp)) {
+            return clientIp;
+        }
+
+        String[] forwardedIps = forwardedFor.split(",");
+        for (int i = forwardedIps.length - 1; i >= 0; i--) {
+            String forwardedIp = forwardedIps[i].strip();
+            if (!isIpAddress(forwardedIp)) {
+                // A malformed entry cannot be attributed, so the last trusted hop is kept
+                return clientIp;
+            }
+            clientIp = forwardedIp;
+            if (!isTrustedProxy(forwardedIp)) {
+                return forwardedIp;
+            }
+        }
+        return clientIp;
+    }
+
+    private boolean isTrustedProxy(String ip) {
+        for (IpAddressMatcher trustedProxy : trustedProxies) {
+            if (trustedProxy.matches(ip)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIpAddress(String ip) {
+        if (IPV4_ADDRESS.matcher(ip).matches()) {
+            return true;
+        }
+        if (!IPV6_ADDRESS.matcher(ip).matches()) {
+            return false;
+        }
+        try {
+            // Text with a colon is always parsed as an IPv6 literal, never looked up as a host name
+            InetAddress.getByName(ip);
+            return true;
+        } catch (UnknownHostException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.dmarts05.speedshield.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch estimating how often each key was seen, in a fixed amount of memory regardless of the
+ * number of distinct keys. Estimates may be too high because of hash collisions but are never too low.
+ * Counters are updated lock-free and can be halved periodically, so that old occurrences fade away.
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final long seed;
+    private final AtomicIntegerArray counters;
+
+    /**
+     * Constructs a CountMinSketch with randomly seeded hashing, so that colliding keys cannot be precomputed.
+     *
+     * @param width Number of counters per row. Wider sketches make fewer overestimates.
+     * @param depth Number of rows. Deeper sketches make overestimates less likely.
+     */
+    public CountMinSketch(int width, int depth) {
+        this.width = width;
+        this.depth = depth;
+        this.seed = ThreadLocalRandom.current().nextLong();
+        this.counters = new AtomicIntegerArray(width * depth);
+    }
+
+    /**
+     * Counts an occurrence of the key.
+     *
+     * @param key Key seen.
+     * @return Estimated number of occurrences of the key, including this one.
+     */
+    public int add(String key) {
+        long hash = hash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int count = counters.incrementAndGet(index(hash, row));
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimates the number of occurrences of the key.
+     *
+     * @param key Key to estimate.
+     * @return Estimated number of occurrences, never lower than the actual one.
+     */
+    public int estimate(String key) {
+        long hash = hash(key);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves every counter, so that each past occurrence weighs half as much as it did.
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, count -> count >>> 1);
+        }
+    }
+
+    /**
+     * Retrieves the memory used by the counters.
+     *
+     * @return Size of the counters in bytes.
+     */
+    public long sizeInBytes() {
+        return (long) counters.length() * Integer.BYTES;
+    }
+
+    private int index(long hash, int row) {
+        // Double hashing derives one independent-enough hash per row from a single 64-bit hash
+        int rowHash = (int) hash + row * (int) (hash >>> 32);
+        return row * width + Math.floorMod(rowHash, width);
+    }
+
+    private long hash(String key) {
+        return SeededHash.hash(key, seed);
+    }
+}
@@ -0,0 +1,102 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.CredentialStuffingProperties;
+import com.dmarts05.speedshield.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+/**
+ * Service class that flags client IPs and usernames with many recent failed logins and rejects their attempts
+ * before any password is verified. Failures are counted in a count-min sketch, so memory stays fixed even when
+ * an attack rotates through millions of client IPs and usernames, and counts are halved every decay interval.
+ */
+@Service
+public class CredentialStuffingDetector {
+    private static final String IP_PREFIX = "ip:";
+    private static final String USERNAME_PREFIX = "username:";
+
+    private final CredentialStuffingProperties credentialStuffingProperties;
+    private final CountMinSketch failures;
+    private final Counter ipRejectedCounter;
+    private final Counter usernameRejectedCounter;
+
+    /**
+     * Constructs a CredentialStuffingDetector with the required dependencies.
+     *
+     * @param credentialStuffingProperties Credential stuffing properties configuration.
+     * @param meterRegistry                Registry for the detector metrics.
+     */
+    public CredentialStuffingDetector(CredentialStuffingProperties credentialStuffingProperties, MeterRegistry meterRegistry) {
+        this.credentialStuffingProperties = credentialStuffingProperties;
+        this.failures = new CountMinSketch(credentialStuffingProperties.getWidth(), credentialStuffingProperties.getDepth());
+        this.ipRejectedCounter = rejectedCounter(meterRegistry, "ip");
+        this.usernameRejectedCounter = rejectedCounter(meterRegistry, "username");
+        Gauge.builder("auth.credential.stuffing.memory", failures, CountMinSketch::sizeInBytes)
+                .description("Memory used to count failed logins")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rejects the attempt if the client IP or the username has been flagged for too many failed logins.
+     *
+     * @param clientIp Address of the client making the attempt.
+     * @param username Username the attempt is made for, or null if unknown.
+     * @throws RateLimitExceededException If the client IP or the username is flagged.
+     */
+    public void checkAttempt(String clientIp, String username) {
+        if (!credentialStuffingProperties.isEnabled()) {
+            return;
+        }
+
+        if (failures.estimate(IP_PREFIX + clientIp) >= credentialStuffingProperties.getIpFailureThreshold()) {
+            ipRejectedCounter.increment();
+            throw new RateLimitExceededException(credentialStuffingProperties.getDecayInterval());
+        }
+        if (username != null && failures.estimate(USERNAME_PREFIX + normalize(username)) >= credentialStuffingProperties.getUsernameFailureThreshold()) {
+            usernameRejectedCounter.increment();
+            throw new RateLimitExceededException(credentialStuffingProperties.getDecayInterval());
+        }
+    }
+
+    /**
+     * Counts a failed login for the client IP and the username.
+     *
+     * @param clientIp Address of the client that failed to log in.
+     * @param username Username the login failed for, or null if unknown.
+     */
+    public void recordFailure(String clientIp, String username) {
+        if (!credentialStuffingProperties.isEnabled()) {
+            return;
+        }
+
+        failures.add(IP_PREFIX + clientIp);
+        if (username != null) {
+            failures.add(USERNAME_PREFIX + normalize(username));
+        }
+    }
+
+    /**
+     * Scheduled method halving every failure count, so that flagged sources are let through again once they stop.
+     */
+    @Scheduled(fixedDelayString = "${app.credential-stuffing.decay-interval}", initialDelayString = "${app.credential-stuffing.decay-interval}")
+    public void decay() {
+        failures.decay();
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("auth.credential.stuffing.rejected")
+                .description("Login attempts rejected because of too many recent failed logins")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
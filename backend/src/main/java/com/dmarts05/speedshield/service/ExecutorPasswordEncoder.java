@@ -0,0 +1,144 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.PasswordHashingProperties;
+import com.dmarts05.speedshield.exception.PasswordHashingUnavailableException;
+import com.dmarts05.speedshield.jfr.PasswordHashEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Password encoder that runs the CPU-bound hashing of a delegate encoder on a bounded pool of platform threads.
+ * Keeps slow hashes off the virtual thread carriers, and rejects new work once the queue is full
+ * instead of letting login bursts degrade every other request.
+ */
+public class ExecutorPasswordEncoder implements PasswordEncoder, AutoCloseable {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+    private final Timer verificationTimer;
+
+    /**
+     * Constructs an ExecutorPasswordEncoder with its own hashing thread pool.
+     *
+     * @param delegate                  Password encoder performing the hashing.
+     * @param passwordHashingProperties Password hashing properties configuration.
+     * @param meterRegistry             Registry for the hashing pool metrics.
+     */
+    public ExecutorPasswordEncoder(PasswordEncoder delegate, PasswordHashingProperties passwordHashingProperties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                passwordHashingProperties.getThreads(),
+                passwordHashingProperties.getThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(passwordHashingProperties.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Time password hashing tasks wait for a hashing thread")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a hashing thread")
+                .register(meterRegistry);
+        this.verificationTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.PASSWORD_VERIFICATION);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashing threads currently hashing a password")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> {
+            PasswordHashEvent event = new PasswordHashEvent();
+            event.begin();
+            String encodedPassword = delegate.encode(rawPassword);
+            commit(event, "encode", "success");
+            return encodedPassword;
+        });
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return verificationTimer.record(() -> execute(() -> {
+            PasswordHashEvent event = new PasswordHashEvent();
+            event.begin();
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            commit(event, "matches", matches ? "match" : "mismatch");
+            return matches;
+        }));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Stops the hashing threads once queued tasks are done.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs a hashing task on the hashing pool and waits for its result.
+     *
+     * @param task Hashing task to run.
+     * @param <T>  Type of the task result.
+     * @return Result of the task.
+     * @throws PasswordHashingUnavailableException If the hashing queue is full.
+     */
+    private <T> T execute(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return task.get();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingUnavailableException();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static void commit(PasswordHashEvent event, String operation, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+}
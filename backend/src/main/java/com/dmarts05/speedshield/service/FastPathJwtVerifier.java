@@ -0,0 +1,670 @@
+package com.dmarts05.speedshield.service;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fast path verifying the HMAC-signed JWTs issued by {@link JwtService} without going through jjwt.
+ * Segments are base64url-decoded straight into pooled buffers, the signature is checked with a pooled {@link Mac},
+ * and only the claims held by {@link VerifiedToken} are pulled out by a streaming scan of the payload,
+ * instead of building a generic claims map.
+ * <p>
+ * The scanner only understands the compact JSON this service produces: flat objects, unescaped ASCII strings,
+ * arrays of strings and integer numbers. Tokens outside of that subset, and every token that fails verification,
+ * are reported as unhandled so that the caller falls back to jjwt, which therefore decides every rejection.
+ * <p>
+ * Pooled sessions are handed out through lock-free slots rather than thread locals, since every request runs on
+ * its own virtual thread and a per-thread {@link Mac} would never be reused.
+ */
+final class FastPathJwtVerifier {
+    /**
+     * Tokens longer than this are left to jjwt, bounding the size of the pooled buffers.
+     */
+    static final int MAX_TOKEN_LENGTH = 8192;
+
+    private static final int MAX_KNOWN_HEADERS = 16;
+    private static final long ABSENT = Long.MIN_VALUE;
+    private static final int MAX_NUMBER_DIGITS = 15;
+
+    private static final byte[] ALG = ascii("alg");
+    private static final byte[] KID = ascii("kid");
+    private static final byte[] TYP = ascii("typ");
+    private static final byte[][] CLAIMS = {
+            ascii("jti"), ascii("sub"), ascii("iss"), ascii("aud"), ascii("iat"), ascii("exp"), ascii("nbf"),
+            ascii(JwtService.USER_ID_CLAIM), ascii(JwtService.ROLE_CLAIM)
+    };
+    private static final int JTI = 0;
+    private static final int SUB = 1;
+    private static final int ISS = 2;
+    private static final int AUD = 3;
+    private static final int IAT = 4;
+    private static final int EXP = 5;
+    private static final int NBF = 6;
+    private static final int UID = 7;
+    private static final int ROLE = 8;
+
+    private static final int[] BASE64URL = new int[128];
+
+    static {
+        Arrays.fill(BASE64URL, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64URL[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private final JwtKeyRing jwtKeyRing;
+    private final Map<SecretKey, MacPool[]> pools;
+    private volatile KnownHeader[] knownHeaders = new KnownHeader[0];
+
+    /**
+     * Constructs a FastPathJwtVerifier for the keys of the key ring.
+     *
+     * @param jwtKeyRing Key ring holding the verification keys.
+     */
+    FastPathJwtVerifier(JwtKeyRing jwtKeyRing) {
+        this.jwtKeyRing = jwtKeyRing;
+        int poolSize = Runtime.getRuntime().availableProcessors() * 2;
+        Map<SecretKey, MacPool[]> keyPools = new HashMap<>();
+        for (String keyId : jwtKeyRing.getKeyIds()) {
+            SecretKey key = jwtKeyRing.getKey(keyId);
+            MacPool[] algorithmPools = new MacPool[HmacAlgorithm.values().length];
+            for (HmacAlgorithm algorithm : HmacAlgorithm.values()) {
+                // jjwt rejects keys shorter than the digest, so such tokens are left to it
+                if (key.getEncoded().length >= algorithm.macLength) {
+                    algorithmPools[algorithm.ordinal()] = new MacPool(key, algorithm, poolSize);
+                }
+            }
+            keyPools.put(key, algorithmPools);
+        }
+        this.pools = Map.copyOf(keyPools);
+    }
+
+    /**
+     * Verifies the signature and expiration of a token against the current time.
+     *
+     * @param token JWT token to verify.
+     * @return VerifiedToken holding the token claims, or null if the token has to be verified by jjwt.
+     */
+    VerifiedToken verify(String token) {
+        return verify(token, System.currentTimeMillis());
+    }
+
+    /**
+     * Verifies the signature and expiration of a token against the given time.
+     *
+     * @param token     JWT token to verify.
+     * @param nowMillis Current time in milliseconds since the epoch.
+     * @return VerifiedToken holding the token claims, or null if the token has to be verified by jjwt.
+     */
+    VerifiedToken verify(String token, long nowMillis) {
+        int length = token.length();
+        if (length > MAX_TOKEN_LENGTH) {
+            return null;
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return null;
+        }
+
+        MacPool pool = findKnownHeader(token, headerEnd);
+        boolean knownHeader = pool != null;
+        if (!knownHeader) {
+            pool = parseHeader(token, headerEnd);
+            if (pool == null) {
+                return null;
+            }
+        }
+
+        Session session = pool.take();
+        try {
+            VerifiedToken verifiedToken = verify(session, token, headerEnd, payloadEnd, nowMillis);
+            if (verifiedToken != null && !knownHeader) {
+                rememberHeader(token.substring(0, headerEnd), pool);
+            }
+            return verifiedToken;
+        } finally {
+            pool.putBack(session);
+        }
+    }
+
+    private VerifiedToken verify(Session session, String token, int headerEnd, int payloadEnd, long nowMillis) {
+        byte[] buffer = session.buffer(payloadEnd);
+        for (int i = 0; i < payloadEnd; i++) {
+            char c = token.charAt(i);
+            if (c > 0x7f) {
+                return null;
+            }
+            buffer[i] = (byte) c;
+        }
+        Mac mac = session.mac;
+        mac.update(buffer, 0, payloadEnd);
+        try {
+            mac.doFinal(session.expectedSignature, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException("Signature buffer is smaller than the MAC length", e);
+        }
+
+        int signatureLength = decode(token, payloadEnd + 1, token.length(), session.signature);
+        if (signatureLength != mac.getMacLength()
+                || !constantTimeEquals(session.expectedSignature, session.signature, signatureLength)) {
+            return null;
+        }
+
+        // The signing input is no longer needed, so the payload is decoded over it
+        int payloadLength = decode(token, headerEnd + 1, payloadEnd, buffer);
+        if (payloadLength < 0) {
+            return null;
+        }
+        return readClaims(session.json.reset(buffer, payloadLength), nowMillis);
+    }
+
+    private VerifiedToken readClaims(JsonScanner json, long nowMillis) {
+        String tokenId = null;
+        String subject = null;
+        String issuer = null;
+        String role = null;
+        Set<String> audience = null;
+        long issuedAt = ABSENT;
+        long expiration = ABSENT;
+        long notBefore = ABSENT;
+        long userId = ABSENT;
+
+        int seenClaims = 0;
+        if (!json.beginObject()) {
+            return null;
+        }
+        while (json.nextMember()) {
+            int claim = json.keyIndex(CLAIMS);
+            if (claim >= 0) {
+                // Duplicate claims are left to jjwt rather than guessing which one it keeps
+                if ((seenClaims & (1 << claim)) != 0) {
+                    return null;
+                }
+                seenClaims |= 1 << claim;
+            }
+            switch (claim) {
+                case JTI -> tokenId = json.readString();
+                case SUB -> subject = json.readString();
+                case ISS -> issuer = json.readString();
+                case ROLE -> role = json.readString();
+                case AUD -> audience = json.readAudience();
+                case IAT -> issuedAt = json.readLong();
+                case EXP -> expiration = json.readLong();
+                case NBF -> notBefore = json.readLong();
+                case UID -> userId = json.readLong();
+                default -> json.skipValue();
+            }
+            if (json.failed) {
+                return null;
+            }
+        }
+        if (!json.endOfInput()) {
+            return null;
+        }
+
+        if (expiration != ABSENT && nowMillis > expiration * 1000) {
+            return null;
+        }
+        if (notBefore != ABSENT && nowMillis < notBefore * 1000) {
+            return null;
+        }
+        return VerifiedToken.builder()
+                .tokenId(tokenId)
+                .subject(subject)
+                .issuer(issuer)
+                .audience(audience)
+                .issuedAt(issuedAt != ABSENT ? Instant.ofEpochSecond(issuedAt) : null)
+                .expiration(expiration != ABSENT ? Instant.ofEpochSecond(expiration) : null)
+                .userId(userId != ABSENT ? userId : null)
+                .role(VerifiedToken.parseRole(role))
+                .build();
+    }
+
+    private MacPool findKnownHeader(String token, int headerEnd) {
+        for (KnownHeader knownHeader : knownHeaders) {
+            if (knownHeader.segment.length() == headerEnd && token.startsWith(knownHeader.segment)) {
+                return knownHeader.pool;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void rememberHeader(String segment, MacPool pool) {
+        KnownHeader[] current = knownHeaders;
+        if (current.length >= MAX_KNOWN_HEADERS) {
+            return;
+        }
+        for (KnownHeader knownHeader : current) {
+            if (knownHeader.segment.equals(segment)) {
+                return;
+            }
+        }
+        KnownHeader[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = new KnownHeader(segment, pool);
+        knownHeaders = updated;
+    }
+
+    private MacPool parseHeader(String token, int headerEnd) {
+        byte[] buffer = new byte[headerEnd];
+        int headerLength = decode(token, 0, headerEnd, buffer);
+        if (headerLength < 0) {
+            return null;
+        }
+
+        JsonScanner json = new JsonScanner().reset(buffer, headerLength);
+        String algorithmName = null;
+        String keyId = null;
+        boolean keyIdPresent = false;
+        if (!json.beginObject()) {
+            return null;
+        }
+        while (json.nextMember()) {
+            if (json.keyEquals(ALG) && algorithmName == null) {
+                algorithmName = json.readString();
+            } else if (json.keyEquals(KID) && !keyIdPresent) {
+                keyId = json.readString();
+                keyIdPresent = true;
+            } else if (json.keyEquals(TYP)) {
+                json.readString();
+            } else {
+                // Any other header parameter, such as "crit", "zip" or "b64", is left to jjwt
+                return null;
+            }
+            if (json.failed) {
+                return null;
+            }
+        }
+        if (!json.endOfInput()) {
+            return null;
+        }
+
+        HmacAlgorithm algorithm = HmacAlgorithm.forJwaName(algorithmName);
+        // Like JwtKeyRing.locate, tokens without a key id are verified with the legacy secret
+        SecretKey key = jwtKeyRing.getKey(keyIdPresent ? keyId : JwtKeyRing.DEFAULT_KEY_ID);
+        if (algorithm == null || key == null) {
+            return null;
+        }
+        MacPool[] algorithmPools = pools.get(key);
+        return algorithmPools != null ? algorithmPools[algorithm.ordinal()] : null;
+    }
+
+    /**
+     * Decodes unpadded, canonical base64url characters into the buffer.
+     *
+     * @return Number of decoded bytes, or -1 if the input is not valid or does not fit in the buffer.
+     */
+    private static int decode(String source, int from, int to, byte[] target) {
+        int length = to - from;
+        if (length % 4 == 1 || length / 4 * 3 + Math.max(length % 4 - 1, 0) > target.length) {
+            return -1;
+        }
+        int written = 0;
+        int accumulator = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            accumulator = (accumulator << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                target[written++] = (byte) (accumulator >> bits);
+            }
+        }
+        // Leftover bits must be zero, otherwise several encodings would map to the same bytes
+        if ((accumulator & ((1 << bits) - 1)) != 0) {
+            return -1;
+        }
+        return written;
+    }
+
+    private static boolean constantTimeEquals(byte[] expected, byte[] actual, int length) {
+        int difference = 0;
+        for (int i = 0; i < length; i++) {
+            difference |= expected[i] ^ actual[i];
+        }
+        return difference == 0;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private enum HmacAlgorithm {
+        HS256("HmacSHA256", 32),
+        HS384("HmacSHA384", 48),
+        HS512("HmacSHA512", 64);
+
+        private final String jcaName;
+        private final int macLength;
+
+        HmacAlgorithm(String jcaName, int macLength) {
+            this.jcaName = jcaName;
+            this.macLength = macLength;
+        }
+
+        private static HmacAlgorithm forJwaName(String name) {
+            for (HmacAlgorithm algorithm : values()) {
+                if (algorithm.name().equals(name)) {
+                    return algorithm;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record KnownHeader(String segment, MacPool pool) {
+    }
+
+    /**
+     * Idle sessions for one key and algorithm. Sessions are taken out of and put back into lock-free slots,
+     * a new session is created when every slot is empty and dropped when every slot is full.
+     */
+    private static final class MacPool {
+        private final SecretKey key;
+        private final HmacAlgorithm algorithm;
+        private final AtomicReferenceArray<Session> idle;
+
+        private MacPool(SecretKey key, HmacAlgorithm algorithm, int size) {
+            this.key = key;
+            this.algorithm = algorithm;
+            this.idle = new AtomicReferenceArray<>(size);
+        }
+
+        private Session take() {
+            int start = ThreadLocalRandom.current().nextInt(idle.length());
+            for (int i = 0; i < idle.length(); i++) {
+                Session session = idle.getAndSet((start + i) % idle.length(), null);
+                if (session != null) {
+                    return session;
+                }
+            }
+            return new Session(newMac());
+        }
+
+        private void putBack(Session session) {
+            int start = ThreadLocalRandom.current().nextInt(idle.length());
+            for (int i = 0; i < idle.length(); i++) {
+                if (idle.compareAndSet((start + i) % idle.length(), null, session)) {
+                    return;
+                }
+            }
+        }
+
+        private Mac newMac() {
+            try {
+                Mac mac = Mac.getInstance(algorithm.jcaName);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Unable to initialize " + algorithm.jcaName, e);
+            }
+        }
+    }
+
+    /**
+     * Per-verification state reused across tokens: the MAC, the decoding buffers and the payload scanner.
+     */
+    private static final class Session {
+        private final Mac mac;
+        private final byte[] expectedSignature;
+        private final byte[] signature;
+        private final JsonScanner json = new JsonScanner();
+        private byte[] buffer = new byte[512];
+
+        private Session(Mac mac) {
+            this.mac = mac;
+            this.expectedSignature = new byte[mac.getMacLength()];
+            this.signature = new byte[mac.getMacLength()];
+        }
+
+        private byte[] buffer(int length) {
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Streaming scanner over the members of a flat JSON object.
+     * Any input outside of the supported subset sets {@link #failed} instead of throwing.
+     */
+    private static final class JsonScanner {
+        private byte[] input;
+        private int position;
+        private int end;
+        private int keyStart;
+        private int keyLength;
+        private boolean firstMember;
+        private boolean closed;
+        private boolean failed;
+
+        private JsonScanner reset(byte[] input, int length) {
+            this.input = input;
+            this.position = 0;
+            this.end = length;
+            this.firstMember = true;
+            this.closed = false;
+            this.failed = false;
+            return this;
+        }
+
+        private boolean beginObject() {
+            skipWhitespace();
+            if (position < end && input[position] == '{') {
+                position++;
+                return true;
+            }
+            failed = true;
+            return false;
+        }
+
+        /**
+         * Advances to the value of the next member, recording its key.
+         *
+         * @return True if positioned on a value, false once the object is closed or the input is not supported.
+         */
+        private boolean nextMember() {
+            skipWhitespace();
+            if (position < end && input[position] == '}') {
+                position++;
+                closed = true;
+                return false;
+            }
+            if (!firstMember) {
+                if (position >= end || input[position] != ',') {
+                    failed = true;
+                    return false;
+                }
+                position++;
+                skipWhitespace();
+            }
+            firstMember = false;
+            keyLength = scanString();
+            keyStart = position - keyLength - 1;
+            skipWhitespace();
+            if (keyLength < 0 || position >= end || input[position] != ':') {
+                failed = true;
+                return false;
+            }
+            position++;
+            skipWhitespace();
+            return true;
+        }
+
+        private boolean endOfInput() {
+            skipWhitespace();
+            return closed && !failed && position == end;
+        }
+
+        private boolean keyEquals(byte[] name) {
+            return Arrays.equals(input, keyStart, keyStart + keyLength, name, 0, name.length);
+        }
+
+        private int keyIndex(byte[][] names) {
+            for (int i = 0; i < names.length; i++) {
+                if (keyEquals(names[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private String readString() {
+            int length = scanString();
+            if (length < 0) {
+                failed = true;
+                return null;
+            }
+            return new String(input, position - length - 1, length, StandardCharsets.ISO_8859_1);
+        }
+
+        private Set<String> readAudience() {
+            if (position < end && input[position] == '"') {
+                String audience = readString();
+                return audience != null ? Set.of(audience) : null;
+            }
+            if (position >= end || input[position] != '[') {
+                failed = true;
+                return null;
+            }
+            position++;
+            Set<String> audience = new LinkedHashSet<>();
+            do {
+                skipWhitespace();
+                String value = readString();
+                if (value == null) {
+                    return null;
+                }
+                audience.add(value);
+                skipWhitespace();
+            } while (position < end && input[position++] == ',');
+            if (input[position - 1] != ']') {
+                failed = true;
+                return null;
+            }
+            return Collections.unmodifiableSet(audience);
+        }
+
+        private long readLong() {
+            boolean negative = position < end && input[position] == '-';
+            if (negative) {
+                position++;
+            }
+            int start = position;
+            long value = 0;
+            while (position < end && input[position] >= '0' && input[position] <= '9') {
+                value = value * 10 + (input[position++] - '0');
+            }
+            int digits = position - start;
+            boolean fraction = position < end && (input[position] == '.' || input[position] == 'e' || input[position] == 'E');
+            if (digits == 0 || digits > MAX_NUMBER_DIGITS || (digits > 1 && input[start] == '0') || fraction) {
+                failed = true;
+                return ABSENT;
+            }
+            return negative ? -value : value;
+        }
+
+        private void skipValue() {
+            if (position >= end) {
+                failed = true;
+            } else if (input[position] == '"') {
+                readString();
+            } else if (input[position] == '[') {
+                position++;
+                skipWhitespace();
+                if (position < end && input[position] == ']') {
+                    position++;
+                    return;
+                }
+                do {
+                    skipWhitespace();
+                    skipScalar();
+                    skipWhitespace();
+                } while (!failed && position < end && input[position++] == ',');
+                if (!failed && input[position - 1] != ']') {
+                    failed = true;
+                }
+            } else {
+                skipScalar();
+            }
+        }
+
+        private void skipScalar() {
+            if (position >= end) {
+                failed = true;
+            } else if (input[position] == '"') {
+                readString();
+            } else if (!skipLiteral("true") && !skipLiteral("false") && !skipLiteral("null")) {
+                // Nested objects and arrays, decimals and exponents are left to jjwt
+                readLong();
+            }
+        }
+
+        private boolean skipLiteral(String literal) {
+            if (end - position < literal.length()) {
+                return false;
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                if (input[position + i] != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            position += literal.length();
+            return true;
+        }
+
+        /**
+         * Scans a string made of printable ASCII characters without escapes, leaving the position after it.
+         *
+         * @return Length of the string contents, or -1 if the input is not a supported string.
+         */
+        private int scanString() {
+            if (position >= end || input[position] != '"') {
+                return -1;
+            }
+            int start = ++position;
+            while (position < end) {
+                byte b = input[position];
+                if (b == '"') {
+                    position++;
+                    return position - start - 1;
+                }
+                if (b < 0x20 || b == '\\') {
+                    // Also rejects non-ASCII bytes, which are negative
+                    return -1;
+                }
+                position++;
+            }
+            return -1;
+        }
+
+        private void skipWhitespace() {
+            while (position < end) {
+                byte b = input[position];
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                    return;
+                }
+                position++;
+            }
+        }
+    }
+}
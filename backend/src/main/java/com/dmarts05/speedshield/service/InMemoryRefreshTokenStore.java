@@ -0,0 +1,382 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.config.RefreshTokenStoreProperties;
+import com.dmarts05.speedshield.exception.RefreshTokenNotFoundException;
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.repository.ClaimedRefreshToken;
+import com.dmarts05.speedshield.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Refresh token store holding the refresh tokens in the memory of this instance, so that rotations never leave
+ * the process. Refresh tokens are spread by token across lock-striped maps, so that operations on different tokens
+ * rarely contend, and are indexed by expiry in a {@link TimingWheel}, which evicts them once expired in place of
+ * {@link RefreshTokenCleanupService}.
+ * <p>
+ * Without write-behind, every refresh token is lost when the instance stops. With it, inserts and deletes are queued
+ * and flushed to the refresh tokens table in batches, and the unexpired refresh tokens are reloaded at startup, so only
+ * the changes since the last flush are lost if the instance stops abruptly, which revives the refresh tokens rotated
+ * meanwhile. Changes that keep failing are dropped rather than retried forever, and so are the oldest failed changes
+ * beyond a limit, leaving the table behind the memory until the dropped refresh tokens expire. Either way refresh tokens are not shared between instances, so refreshes have to reach the instance
+ * that served the login.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.refresh-token-store", name = "type", havingValue = "memory")
+public class InMemoryRefreshTokenStore implements RefreshTokenStore, SmartInitializingSingleton, AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryRefreshTokenStore.class);
+    private static final int CHUNK_SIZE = 1000;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean writeBehind;
+    private final int writeBehindMaxAttempts;
+    private final int writeBehindMaxRetained;
+    private final Stripe[] stripes;
+    private final TimingWheel<StoredToken> expiryIndex;
+    private final AtomicInteger size = new AtomicInteger();
+    private final Queue<PendingWrite> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final List<PendingWrite> unflushedWrites = new ArrayList<>();
+    private final DistributionSummary flushSizeSummary;
+    private final Counter droppedWritesCounter;
+
+    /**
+     * Constructs an InMemoryRefreshTokenStore with the required dependencies.
+     *
+     * @param refreshTokenRepository      Repository the refresh tokens are written behind to.
+     * @param transactionManager          Transaction manager for the write-behind flushes.
+     * @param refreshTokenStoreProperties Refresh token store properties configuration.
+     * @param jwtProperties               JWT properties configuration, whose refresh token lifetime sizes the expiry index.
+     * @param meterRegistry               Registry for the store metrics.
+     */
+    public InMemoryRefreshTokenStore(RefreshTokenRepository refreshTokenRepository, PlatformTransactionManager transactionManager, RefreshTokenStoreProperties refreshTokenStoreProperties, JwtProperties jwtProperties, MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.writeBehind = refreshTokenStoreProperties.isWriteBehind();
+        this.writeBehindMaxAttempts = refreshTokenStoreProperties.getWriteBehindMaxAttempts();
+        this.writeBehindMaxRetained = refreshTokenStoreProperties.getWriteBehindMaxRetained();
+        this.stripes = new Stripe[refreshTokenStoreProperties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.expiryIndex = new TimingWheel<>(refreshTokenStoreProperties.getTickDuration(), jwtProperties.getRefreshExpiresIn(),
+                StoredToken::expiryDate, Instant.now());
+        Gauge.builder("refresh.tokens.store.size", size, AtomicInteger::get)
+                .description("Refresh tokens held in memory")
+                .register(meterRegistry);
+        this.flushSizeSummary = DistributionSummary.builder("refresh.tokens.write.behind.size")
+                .description("Refresh token changes written behind per flush")
+                .register(meterRegistry);
+        this.droppedWritesCounter = Counter.builder("refresh.tokens.write.behind.dropped")
+                .description("Refresh token changes dropped without being written behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reloads the unexpired refresh tokens written behind before the application starts serving requests,
+     * after deleting the ones that expired while no instance was evicting them.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!writeBehind) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        while (refreshTokenRepository.deleteExpiredChunk(now, CHUNK_SIZE) == CHUNK_SIZE) {
+            // Keep deleting until a chunk comes back partially filled
+        }
+        refreshTokenRepository.findAllUnexpired(now).forEach(refreshToken -> {
+            StoredToken storedToken = new StoredToken(refreshToken.getToken(), refreshToken.getUserId(), refreshToken.getExpiryDate());
+            put(storedToken);
+            expiryIndex.add(storedToken);
+        });
+    }
+
+    @Override
+    public void insert(RefreshTokenEntity refreshToken) {
+        StoredToken storedToken = new StoredToken(refreshToken.getToken(), refreshToken.getUserEntity().getId(), refreshToken.getExpiryDate());
+        put(storedToken);
+        expiryIndex.add(storedToken);
+        if (writeBehind) {
+            pendingWrites.add(new PendingWrite(refreshToken.getToken(), refreshToken, 0));
+        }
+    }
+
+    /**
+     * Claims the refresh token under the lock of its stripe and stores the replacement built from it.
+     * If building the replacement throws, the claimed refresh token is put back unless it has expired.
+     *
+     * @param refreshToken Token string of the refresh token to claim.
+     * @param replacement  Function validating the claimed refresh token and building its replacement.
+     * @return The stored replacement refresh token.
+     * @throws RefreshTokenNotFoundException If the refresh token does not exist or was already claimed.
+     */
+    @Override
+    public RefreshTokenEntity rotate(String refreshToken, Function<ClaimedRefreshToken, RefreshTokenEntity> replacement) {
+        StoredToken claimedToken = remove(refreshToken);
+        if (claimedToken == null) {
+            throw new RefreshTokenNotFoundException();
+        }
+
+        RefreshTokenEntity replacementRefreshToken;
+        try {
+            replacementRefreshToken = replacement.apply(claimedToken);
+        } catch (RuntimeException e) {
+            if (claimedToken.expiryDate().isAfter(Instant.now())) {
+                put(claimedToken);
+            } else {
+                // The expiry index may already have passed over it while it was claimed
+                evicted(claimedToken);
+            }
+            throw e;
+        }
+        evicted(claimedToken);
+        insert(replacementRefreshToken);
+
+        return replacementRefreshToken;
+    }
+
+    /**
+     * Deletes a chunk of the expired refresh tokens written behind that the expiry index does not hold.
+     * Refresh tokens held in memory are evicted by {@link #evictExpiredTokens()} instead.
+     *
+     * @param limitDate Refresh tokens expiring before this instant are deleted.
+     * @param chunkSize Maximum number of refresh tokens to delete.
+     * @return Number of refresh tokens deleted.
+     */
+    @Override
+    public int deleteExpired(Instant limitDate, int chunkSize) {
+        return writeBehind ? refreshTokenRepository.deleteExpiredChunk(limitDate, chunkSize) : 0;
+    }
+
+    /**
+     * Scheduled method that evicts the refresh tokens expired since the previous tick.
+     *
+     * @return Number of expired refresh tokens evicted.
+     */
+    @Scheduled(fixedRateString = "${app.refresh-token-store.tick-duration}")
+    public int evictExpiredTokens() {
+        return expiryIndex.advance(Instant.now(), expiredToken -> {
+            if (remove(expiredToken)) {
+                deleted(expiredToken.token());
+            }
+        });
+    }
+
+    /**
+     * Scheduled method that writes the queued inserts and deletes behind to the database in one transaction.
+     * A refresh token inserted and deleted since the previous flush is never written. If the database cannot be
+     * reached, the changes are retried first on the next flush, so that they are never applied out of order.
+     * If the flush fails otherwise, its changes are written one by one to isolate the failing ones, which are retried
+     * on the next flushes until they run out of attempts.
+     */
+    @Scheduled(fixedDelayString = "${app.refresh-token-store.write-behind-interval}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            PendingWrite pendingWrite;
+            while ((pendingWrite = pendingWrites.poll()) != null) {
+                unflushedWrites.add(pendingWrite);
+            }
+            if (unflushedWrites.isEmpty()) {
+                return;
+            }
+
+            Map<String, PendingWrite> inserts = new LinkedHashMap<>();
+            List<PendingWrite> deletes = new ArrayList<>();
+            for (PendingWrite unflushedWrite : unflushedWrites) {
+                if (unflushedWrite.insert() != null) {
+                    inserts.put(unflushedWrite.token(), unflushedWrite);
+                } else if (inserts.remove(unflushedWrite.token()) == null) {
+                    deletes.add(unflushedWrite);
+                }
+            }
+            int changes = unflushedWrites.size();
+            unflushedWrites.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    refreshTokenRepository.saveAll(inserts.values().stream().map(PendingWrite::insert).toList());
+                    List<String> deletedTokens = deletes.stream().map(PendingWrite::token).toList();
+                    for (int from = 0; from < deletedTokens.size(); from += CHUNK_SIZE) {
+                        refreshTokenRepository.deleteAllByTokens(deletedTokens.subList(from, Math.min(from + CHUNK_SIZE, deletedTokens.size())));
+                    }
+                });
+                flushSizeSummary.record(changes);
+            } catch (RuntimeException e) {
+                // Ids assigned by the rolled back flush are discarded, so that the rows are persisted rather than merged
+                inserts.values().forEach(insert -> insert.insert().setId(null));
+                if (isDatabaseUnavailable(e)) {
+                    unflushedWrites.addAll(inserts.values());
+                    unflushedWrites.addAll(deletes);
+                    logger.error("Failed to write {} refresh token changes behind, retrying on the next flush", changes, e);
+                } else {
+                    // A single failing change rolls back the whole flush, so the changes are written one by one to isolate it
+                    int failed = writeAlone(inserts.values()) + writeAlone(deletes);
+                    logger.error("Failed to write {} of {} refresh token changes behind", failed, changes, e);
+                }
+                dropOverflow();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the changes not yet written behind.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private static boolean isDatabaseUnavailable(RuntimeException e) {
+        return e instanceof CannotCreateTransactionException || e instanceof DataAccessResourceFailureException
+                || e instanceof TransientDataAccessException;
+    }
+
+    private int writeAlone(Collection<PendingWrite> writes) {
+        int failed = 0;
+        for (PendingWrite write : writes) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (write.insert() != null) {
+                        refreshTokenRepository.save(write.insert());
+                    } else {
+                        refreshTokenRepository.deleteAllByTokens(List.of(write.token()));
+                    }
+                });
+                flushSizeSummary.record(1);
+            } catch (RuntimeException e) {
+                failed++;
+                if (write.insert() != null) {
+                    write.insert().setId(null);
+                }
+                if (write.attempts() + 1 < writeBehindMaxAttempts) {
+                    unflushedWrites.add(new PendingWrite(write.token(), write.insert(), write.attempts() + 1));
+                } else {
+                    droppedWritesCounter.increment();
+                    logger.error("Dropped a refresh token {} after {} failed attempts to write it behind",
+                            write.insert() != null ? "insert" : "delete", writeBehindMaxAttempts, e);
+                }
+            }
+        }
+        return failed;
+    }
+
+    private void dropOverflow() {
+        int overflow = unflushedWrites.size() - writeBehindMaxRetained;
+        if (overflow > 0) {
+            unflushedWrites.subList(0, overflow).clear();
+            droppedWritesCounter.increment(overflow);
+            logger.error("Dropped the {} oldest refresh token changes not written behind, over the limit of {}", overflow, writeBehindMaxRetained);
+        }
+    }
+
+    private void put(StoredToken storedToken) {
+        Stripe stripe = stripe(storedToken.token());
+        stripe.lock.lock();
+        try {
+            if (stripe.refreshTokens.put(storedToken.token(), storedToken) == null) {
+                size.incrementAndGet();
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private StoredToken remove(String token) {
+        Stripe stripe = stripe(token);
+        stripe.lock.lock();
+        try {
+            StoredToken storedToken = stripe.refreshTokens.remove(token);
+            if (storedToken != null) {
+                size.decrementAndGet();
+            }
+            return storedToken;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private boolean remove(StoredToken storedToken) {
+        Stripe stripe = stripe(storedToken.token());
+        stripe.lock.lock();
+        try {
+            boolean removed = stripe.refreshTokens.remove(storedToken.token(), storedToken);
+            if (removed) {
+                size.decrementAndGet();
+            }
+            return removed;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private void evicted(StoredToken storedToken) {
+        expiryIndex.remove(storedToken);
+        deleted(storedToken.token());
+    }
+
+    private void deleted(String token) {
+        if (writeBehind) {
+            pendingWrites.add(new PendingWrite(token, null, 0));
+        }
+    }
+
+    private Stripe stripe(String token) {
+        return stripes[Math.floorMod(token.hashCode(), stripes.length)];
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, StoredToken> refreshTokens = new HashMap<>();
+    }
+
+    private record StoredToken(String token, Long userId, Instant expiryDate) implements ClaimedRefreshToken {
+        @Override
+        public Long getUserId() {
+            return userId;
+        }
+
+        @Override
+        public Instant getExpiryDate() {
+            return expiryDate;
+        }
+    }
+
+    /**
+     * Change queued to be written behind: the insert of the given refresh token, or the delete of the token if null,
+     * along with the number of flushes it already failed on its own.
+     */
+    private record PendingWrite(String token, RefreshTokenEntity insert, int attempts) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.IntrospectionRateLimitProperties;
+import com.dmarts05.speedshield.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Service class that throttles token introspection per caller, counting every introspected token,
+ * so that a single caller cannot tie up the verification threads with large batches.
+ */
+@Service
+public class IntrospectionRateLimiter {
+    private final boolean enabled;
+    private final TokenBucketRateLimiter callerRateLimiter;
+    private final Counter rejectedCounter;
+
+    /**
+     * Constructs an IntrospectionRateLimiter with the required dependencies.
+     *
+     * @param introspectionRateLimitProperties Introspection rate limit properties configuration.
+     * @param meterRegistry                    Registry for the rate limiter metrics.
+     */
+    public IntrospectionRateLimiter(IntrospectionRateLimitProperties introspectionRateLimitProperties, MeterRegistry meterRegistry) {
+        this.enabled = introspectionRateLimitProperties.isEnabled();
+        this.callerRateLimiter = new TokenBucketRateLimiter(introspectionRateLimitProperties.getCapacity(), introspectionRateLimitProperties.getRefillInterval(), introspectionRateLimitProperties.getMaxKeys());
+        this.rejectedCounter = Counter.builder("auth.rate.limit.rejected")
+                .description("Authentication attempts rejected by the rate limiter")
+                .tag("key", "introspection_caller")
+                .register(meterRegistry);
+        Gauge.builder("auth.rate.limit.buckets", callerRateLimiter, TokenBucketRateLimiter::size)
+                .description("Rate limiting buckets kept in memory")
+                .tag("key", "introspection_caller")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one attempt per token from the bucket of the caller.
+     *
+     * @param caller Name of the authenticated caller.
+     * @param tokens Number of tokens the caller introspects.
+     * @throws RateLimitExceededException If the caller has not enough attempts left.
+     */
+    public void checkAttempt(String caller, int tokens) {
+        if (!enabled) {
+            return;
+        }
+
+        Duration retryAfter = callerRateLimiter.tryAcquire(caller, tokens);
+        if (!retryAfter.isZero()) {
+            rejectedCounter.increment();
+            throw new RateLimitExceededException(retryAfter);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.exception.RefreshTokenNotFoundException;
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.repository.ClaimedRefreshToken;
+import com.dmarts05.speedshield.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Refresh token store backed by the refresh tokens table, shared by every instance of the application.
+ * Rotations claim the old row with a single delete-returning statement and insert the new one in the same transaction.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.refresh-token-store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenWriteCoalescer writeCoalescer;
+    private final Timer insertTimer;
+    private final Timer deleteTimer;
+
+    /**
+     * Constructs a JpaRefreshTokenStore with the required dependencies.
+     *
+     * @param refreshTokenRepository Repository for managing refresh tokens.
+     * @param writeCoalescer         Coalescer batching the refresh token inserts, if enabled.
+     * @param meterRegistry          Registry for the refresh token timers.
+     */
+    public JpaRefreshTokenStore(RefreshTokenRepository refreshTokenRepository, Optional<RefreshTokenWriteCoalescer> writeCoalescer, MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.writeCoalescer = writeCoalescer.orElse(null);
+        this.insertTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.REFRESH_TOKEN_INSERT);
+        this.deleteTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.REFRESH_TOKEN_DELETE);
+    }
+
+    /**
+     * Inserts the refresh token in its own short transaction, which only holds a connection for the insert itself,
+     * or group commits it with concurrent inserts when the write coalescer is enabled.
+     *
+     * @param refreshToken Refresh token to store.
+     */
+    @Override
+    public void insert(RefreshTokenEntity refreshToken) {
+        if (writeCoalescer == null) {
+            insertTimer.record(() -> refreshTokenRepository.save(refreshToken));
+            return;
+        }
+
+        insertTimer.record(() -> writeCoalescer.insert(refreshToken));
+    }
+
+    /**
+     * Claims and deletes the old refresh token and inserts its replacement in a single transaction,
+     * which is rolled back if building the replacement throws.
+     *
+     * @param refreshToken Token string of the refresh token to claim.
+     * @param replacement  Function validating the claimed refresh token and building its replacement.
+     * @return The stored replacement refresh token.
+     * @throws RefreshTokenNotFoundException If the refresh token does not exist or was already claimed.
+     */
+    @Override
+    @Transactional
+    public RefreshTokenEntity rotate(String refreshToken, Function<ClaimedRefreshToken, RefreshTokenEntity> replacement) {
+        ClaimedRefreshToken claimedRefreshToken = deleteTimer.record(() -> refreshTokenRepository.claimByToken(refreshToken))
+                .orElseThrow(RefreshTokenNotFoundException::new);
+        RefreshTokenEntity replacementRefreshToken = replacement.apply(claimedRefreshToken);
+        insertTimer.record(() -> refreshTokenRepository.save(replacementRefreshToken));
+
+        return replacementRefreshToken;
+    }
+
+    @Override
+    public int deleteExpired(Instant limitDate, int chunkSize) {
+        return refreshTokenRepository.deleteExpiredChunk(limitDate, chunkSize);
+    }
+}
@@ -0,0 +1,119 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set of JWT signing keys identified by key id ("kid").
+ * New tokens are signed with the active key, while tokens are verified with the key named in their "kid" header,
+ * so keys can be rotated without invalidating tokens signed with the previous one.
+ * Every key is decoded once at startup and reused for all signing and verification.
+ */
+@Component
+public class JwtKeyRing extends LocatorAdapter<Key> {
+    /**
+     * Key id under which the legacy single secret is registered.
+     */
+    public static final String DEFAULT_KEY_ID = "default";
+
+    private final Map<String, SecretKey> keys;
+    private final String activeKeyId;
+    private final SecretKey activeKey;
+
+    /**
+     * Constructs a JwtKeyRing from the configured keys.
+     *
+     * @param jwtProperties JWT properties configuration.
+     * @throws IllegalStateException If no key is configured or the active key id is unknown.
+     */
+    public JwtKeyRing(JwtProperties jwtProperties) {
+        Map<String, SecretKey> configuredKeys = new HashMap<>();
+        if (jwtProperties.getSecret() != null) {
+            configuredKeys.put(DEFAULT_KEY_ID, toSecretKey(jwtProperties.getSecret()));
+        }
+        if (jwtProperties.getKeys() != null) {
+            jwtProperties.getKeys().forEach((keyId, secret) -> configuredKeys.put(keyId, toSecretKey(secret)));
+        }
+        if (configuredKeys.isEmpty()) {
+            throw new IllegalStateException("No JWT keys configured, set app.jwt.secret or app.jwt.keys");
+        }
+
+        this.keys = Map.copyOf(configuredKeys);
+        this.activeKeyId = jwtProperties.getActiveKeyId() != null ? jwtProperties.getActiveKeyId() : DEFAULT_KEY_ID;
+        this.activeKey = keys.get(activeKeyId);
+        if (activeKey == null) {
+            throw new IllegalStateException("Active JWT key id '" + activeKeyId + "' is not configured");
+        }
+    }
+
+    /**
+     * Retrieves the key id of the key used to sign new tokens.
+     *
+     * @return Active key id.
+     */
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * Retrieves the key used to sign new tokens.
+     *
+     * @return Active signing key.
+     */
+    public SecretKey getActiveKey() {
+        return activeKey;
+    }
+
+    /**
+     * Retrieves the ids of every key in the key ring.
+     *
+     * @return Configured key ids.
+     */
+    public Set<String> getKeyIds() {
+        return keys.keySet();
+    }
+
+    /**
+     * Retrieves the verification key for the given key id.
+     *
+     * @param keyId Key id of the key to retrieve.
+     * @return Key associated with the key id, or null if it is unknown.
+     */
+    public SecretKey getKey(String keyId) {
+        return keys.get(keyId);
+    }
+
+    /**
+     * Locates the verification key of a signed JWT by its "kid" header.
+     * Tokens issued without a key id predate the key ring, so they are verified with the legacy single secret
+     * registered under {@link #DEFAULT_KEY_ID}, whichever key is active.
+     *
+     * @param header Header of the signed JWT.
+     * @return Key used to verify the JWT signature.
+     * @throws UnsupportedJwtException If the key id is not part of the key ring.
+     */
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+        SecretKey key = keys.get(keyId != null ? keyId : DEFAULT_KEY_ID);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown JWT key id");
+        }
+        return key;
+    }
+
+    private static SecretKey toSecretKey(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+}
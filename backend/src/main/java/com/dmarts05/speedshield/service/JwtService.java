@@ -2,17 +2,21 @@ package com.dmarts05.speedshield.service;
 
 import com.dmarts05.speedshield.config.JwtProperties;
 import com.dmarts05.speedshield.exception.JwtNotFoundException;
+import com.dmarts05.speedshield.jfr.JwtSignEvent;
+import com.dmarts05.speedshield.jfr.JwtVerifyEvent;
 import com.dmarts05.speedshield.model.UserEntity;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 /**
@@ -20,16 +24,39 @@ import java.util.function.Function;
  */
 @Service
 public class JwtService {
+    /**
+     * Name of the claim holding the user id.
+     */
+    public static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * Name of the claim holding the user role.
+     */
+    public static final String ROLE_CLAIM = "role";
+
+    private static final String BEARER_PREFIX = "Bearer ";
 
     private final JwtProperties jwtProperties;
+    private final JwtKeyRing jwtKeyRing;
+    private final JwtParser jwtParser;
+    private final FastPathJwtVerifier fastPathJwtVerifier;
+    private final Timer signingTimer;
+    private final Timer verificationTimer;
 
     /**
-     * Constructs a JwtService instance with JWT properties.
+     * Constructs a JwtService instance with JWT properties and the key ring used to sign and verify tokens.
      *
      * @param jwtProperties JWT properties configuration.
+     * @param jwtKeyRing    Key ring holding the signing and verification keys.
+     * @param meterRegistry Registry for the signing and verification timers.
      */
-    public JwtService(JwtProperties jwtProperties) {
+    public JwtService(JwtProperties jwtProperties, JwtKeyRing jwtKeyRing, MeterRegistry meterRegistry) {
         this.jwtProperties = jwtProperties;
+        this.jwtKeyRing = jwtKeyRing;
+        this.jwtParser = Jwts.parser().keyLocator(jwtKeyRing).build();
+        this.fastPathJwtVerifier = jwtProperties.isFastPathVerification() ? new FastPathJwtVerifier(jwtKeyRing) : null;
+        this.signingTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.JWT_SIGNING);
+        this.verificationTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.JWT_VERIFICATION);
     }
 
     /**
@@ -40,11 +67,26 @@ public class JwtService {
      * @throws JwtNotFoundException If the Authorization header is missing or improperly formatted.
      */
     public String extractTokenFromHeader(HttpServletRequest request) throws JwtNotFoundException {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        String token = resolveToken(request);
+        if (token == null) {
             throw new JwtNotFoundException();
         }
-        return authHeader.substring(7);
+        return token;
+    }
+
+    /**
+     * Resolves the JWT token from the Authorization header of the HTTP request without throwing,
+     * for hot paths where a missing token is the common case.
+     *
+     * @param request HTTP servlet request containing the Authorization header.
+     * @return Extracted JWT token, or null if the Authorization header is missing or improperly formatted.
+     */
+    public String resolveToken(HttpServletRequest request) {
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        return authHeader.substring(BEARER_PREFIX.length());
     }
 
     /**
@@ -87,19 +129,53 @@ public class JwtService {
      * @return All claims extracted from the JWT token.
      */
     public Claims extractAllClaims(String token) {
-        JwtParser jwtParser = Jwts.parser().verifyWith(getSignKey()).build();
-
+        JwtVerifyEvent event = new JwtVerifyEvent();
+        event.begin();
         // Extract the claims even if the JWT is expired
         Claims claims;
         try {
             claims = jwtParser.parseSignedClaims(token).getPayload();
+            commit(event, token, "success");
         } catch (ExpiredJwtException e) {
             claims = e.getClaims();
+            commit(event, token, "expired");
+        } catch (RuntimeException e) {
+            commit(event, token, e.getClass().getSimpleName());
+            throw e;
         }
 
         return claims;
     }
 
+    /**
+     * Parses and verifies the JWT token once, rejecting it if the signature is invalid or it has expired.
+     * When enabled, the fast path verifies the token first and jjwt is only used for the tokens it does not accept.
+     *
+     * @param token JWT token to verify.
+     * @return VerifiedToken holding the token claims, or empty if the token is not valid.
+     */
+    public Optional<VerifiedToken> verifyToken(String token) {
+        return verificationTimer.record(() -> {
+            JwtVerifyEvent event = new JwtVerifyEvent();
+            event.begin();
+            if (fastPathJwtVerifier != null && token != null) {
+                VerifiedToken verifiedToken = fastPathJwtVerifier.verify(token);
+                if (verifiedToken != null) {
+                    commit(event, token, "success");
+                    return Optional.of(verifiedToken);
+                }
+            }
+            try {
+                Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+                commit(event, token, "success");
+                return Optional.of(VerifiedToken.fromClaims(claims));
+            } catch (JwtException | IllegalArgumentException e) {
+                commit(event, token, e instanceof ExpiredJwtException ? "expired" : e.getClass().getSimpleName());
+                return Optional.<VerifiedToken>empty();
+            }
+        });
+    }
+
     /**
      * Validates whether the JWT token is valid for the specified user entity.
      *
@@ -108,13 +184,20 @@ public class JwtService {
      * @return True if the JWT token is valid for the user entity, false otherwise.
      */
     public boolean isTokenValid(String token, UserEntity userEntity) {
-        try {
-            Jwts.parser().verifyWith(getSignKey()).build().parseSignedClaims(token);
-            String username = extractUsername(token);
-            return username.equals(userEntity.getUsername());
-        } catch (JwtException e) {
-            return false;
-        }
+        return verifyToken(token)
+                .map(verifiedToken -> isTokenValid(verifiedToken, userEntity))
+                .orElse(false);
+    }
+
+    /**
+     * Validates whether an already verified JWT token was issued to the specified user entity.
+     *
+     * @param verifiedToken Verified JWT token.
+     * @param userEntity    User entity against which to validate the JWT token.
+     * @return True if the JWT token belongs to the user entity, false otherwise.
+     */
+    public boolean isTokenValid(VerifiedToken verifiedToken, UserEntity userEntity) {
+        return verifiedToken.getSubject() != null && verifiedToken.getSubject().equals(userEntity.getUsername());
     }
 
     /**
@@ -124,7 +207,7 @@ public class JwtService {
      * @return Generated JWT token.
      */
     public String generateToken(UserEntity userEntity) {
-        return createToken(new HashMap<>(), userEntity.getUsername());
+        return createToken(new HashMap<>(), userEntity);
     }
 
     /**
@@ -135,21 +218,44 @@ public class JwtService {
      * @return Generated JWT token with additional claims.
      */
     public String generateToken(Map<String, Object> claims, UserEntity userEntity) {
-        return createToken(claims, userEntity.getUsername());
+        return createToken(claims, userEntity);
     }
 
     /**
-     * Creates a JWT token with specified claims and username.
+     * Creates a JWT token with specified claims for the user entity.
+     * The user id and role are embedded so that requests can be authenticated without loading the user,
+     * and a unique token id ("jti" claim) is assigned so that the token can be revoked.
      *
-     * @param claims   Claims to include in the JWT token.
-     * @param username Username (subject) for the JWT token.
+     * @param claims     Claims to include in the JWT token.
+     * @param userEntity User entity whose username is the subject of the JWT token.
      * @return Created JWT token.
      */
-    private String createToken(Map<String, Object> claims, String username) {
+    private String createToken(Map<String, Object> claims, UserEntity userEntity) {
+        return signingTimer.record(() -> {
+            JwtSignEvent event = new JwtSignEvent();
+            event.begin();
+            String token = buildToken(claims, userEntity);
+            event.end();
+            if (event.shouldCommit()) {
+                event.tokenLength = token.length();
+                event.outcome = "success";
+                event.commit();
+            }
+            return token;
+        });
+    }
+
+    private String buildToken(Map<String, Object> claims, UserEntity userEntity) {
         Date issuedAt = new Date();
         Date expiration = new Date(System.currentTimeMillis() + jwtProperties.getExpiresIn().toMillis());
         return Jwts.builder()
-                .subject(username)
+                .header()
+                .keyId(jwtKeyRing.getActiveKeyId())
+                .and()
+                .id(UUID.randomUUID().toString())
+                .subject(userEntity.getUsername())
+                .claim(USER_ID_CLAIM, userEntity.getId())
+                .claim(ROLE_CLAIM, userEntity.getRole() != null ? userEntity.getRole().name() : null)
                 .issuer(jwtProperties.getIssuer())
                 .audience()
                 .add(jwtProperties.getAudience())
@@ -157,17 +263,16 @@ public class JwtService {
                 .issuedAt(issuedAt)
                 .expiration(expiration)
                 .claims(claims)
-                .signWith(getSignKey())
+                .signWith(jwtKeyRing.getActiveKey())
                 .compact();
     }
 
-    /**
-     * Retrieves the signing key for JWT token verification.
-     *
-     * @return Signing key used for JWT token verification.
-     */
-    private SecretKey getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecret());
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static void commit(JwtVerifyEvent event, String token, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.tokenLength = token != null ? token.length() : 0;
+            event.outcome = outcome;
+            event.commit();
+        }
     }
 }
@@ -0,0 +1,79 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.LoginRateLimitProperties;
+import com.dmarts05.speedshield.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Service class that throttles login and registration attempts per client IP and per username,
+ * before any password is hashed, so that bursts of attempts cannot exhaust the CPU.
+ */
+@Service
+public class LoginRateLimiter {
+    private final boolean enabled;
+    private final TokenBucketRateLimiter ipRateLimiter;
+    private final TokenBucketRateLimiter usernameRateLimiter;
+    private final Counter ipRejectedCounter;
+    private final Counter usernameRejectedCounter;
+
+    /**
+     * Constructs a LoginRateLimiter with the required dependencies.
+     *
+     * @param loginRateLimitProperties Login rate limit properties configuration.
+     * @param meterRegistry            Registry for the rate limiter metrics.
+     */
+    public LoginRateLimiter(LoginRateLimitProperties loginRateLimitProperties, MeterRegistry meterRegistry) {
+        this.enabled = loginRateLimitProperties.isEnabled();
+        this.ipRateLimiter = new TokenBucketRateLimiter(loginRateLimitProperties.getIpCapacity(), loginRateLimitProperties.getIpRefillInterval(), loginRateLimitProperties.getMaxKeys());
+        this.usernameRateLimiter = new TokenBucketRateLimiter(loginRateLimitProperties.getUsernameCapacity(), loginRateLimitProperties.getUsernameRefillInterval(), loginRateLimitProperties.getMaxKeys());
+        this.ipRejectedCounter = rejectedCounter(meterRegistry, "ip");
+        this.usernameRejectedCounter = rejectedCounter(meterRegistry, "username");
+        Gauge.builder("auth.rate.limit.buckets", ipRateLimiter, TokenBucketRateLimiter::size)
+                .description("Rate limiting buckets kept in memory")
+                .tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.rate.limit.buckets", usernameRateLimiter, TokenBucketRateLimiter::size)
+                .description("Rate limiting buckets kept in memory")
+                .tag("key", "username")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes an attempt from the buckets of the client IP and of the username.
+     *
+     * @param clientIp Address of the client making the attempt.
+     * @param username Username the attempt is made for, or null if unknown.
+     * @throws RateLimitExceededException If the client IP or the username has no attempts left.
+     */
+    public void checkAttempt(String clientIp, String username) {
+        if (!enabled) {
+            return;
+        }
+
+        Duration retryAfter = ipRateLimiter.tryAcquire(clientIp);
+        if (!retryAfter.isZero()) {
+            ipRejectedCounter.increment();
+            throw new RateLimitExceededException(retryAfter);
+        }
+        if (username != null) {
+            retryAfter = usernameRateLimiter.tryAcquire(username.toLowerCase(Locale.ROOT));
+            if (!retryAfter.isZero()) {
+                usernameRejectedCounter.increment();
+                throw new RateLimitExceededException(retryAfter);
+            }
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("auth.rate.limit.rejected")
+                .description("Authentication attempts rejected by the rate limiter")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,123 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.PasswordHashingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Builds the password encoder, calibrating the hashing cost so that a hash takes about the configured target time
+ * on the current machine.
+ * Hashes are stored with a versioned prefix naming their algorithm ("{bcrypt}" or "{argon2id}") and embed their cost,
+ * so hashes made with another algorithm or a lower cost are detected and upgraded on the next successful login.
+ * Hashes without prefix, stored before the prefixes were introduced, are verified as BCrypt.
+ */
+public class PasswordEncoderCalibrator {
+    /**
+     * Prefix id of BCrypt hashes.
+     */
+    public static final String BCRYPT_ID = "bcrypt";
+
+    /**
+     * Prefix id of Argon2id hashes.
+     */
+    public static final String ARGON2ID_ID = "argon2id";
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderCalibrator.class);
+    private static final int BCRYPT_MAX_STRENGTH = 31;
+    private static final int ARGON2_MAX_ITERATIONS = 64;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final PasswordHashingProperties passwordHashingProperties;
+
+    /**
+     * Constructs a PasswordEncoderCalibrator with password hashing properties.
+     *
+     * @param passwordHashingProperties Password hashing properties configuration.
+     */
+    public PasswordEncoderCalibrator(PasswordHashingProperties passwordHashingProperties) {
+        this.passwordHashingProperties = passwordHashingProperties;
+    }
+
+    /**
+     * Creates the delegating password encoder, calibrating the cost of the configured algorithm.
+     *
+     * @return Password encoder hashing with the configured algorithm and verifying all supported ones.
+     */
+    public PasswordEncoder createPasswordEncoder() {
+        boolean useArgon2 = passwordHashingProperties.getAlgorithm() == PasswordHashingProperties.Algorithm.ARGON2ID;
+        int bcryptStrength = useArgon2 ? passwordHashingProperties.getBcryptMinStrength() : calibrateBcryptStrength();
+        int argon2Iterations = useArgon2 ? calibrateArgon2Iterations() : passwordHashingProperties.getArgon2MinIterations();
+
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT_ID, new BCryptPasswordEncoder(bcryptStrength),
+                ARGON2ID_ID, argon2(argon2Iterations));
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(useArgon2 ? ARGON2ID_ID : BCRYPT_ID, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(encoders.get(BCRYPT_ID));
+        return passwordEncoder;
+    }
+
+    /**
+     * Finds the highest BCrypt strength whose hashing time stays within the target time.
+     * Every extra unit of strength doubles the hashing time, so only the lowest strength is measured.
+     *
+     * @return Calibrated BCrypt strength.
+     */
+    int calibrateBcryptStrength() {
+        int strength = passwordHashingProperties.getBcryptMinStrength();
+        long nanos = measure(new BCryptPasswordEncoder(strength));
+        long targetNanos = passwordHashingProperties.getTargetTime().toNanos();
+        while (strength < BCRYPT_MAX_STRENGTH && nanos * 2 <= targetNanos) {
+            strength++;
+            nanos *= 2;
+        }
+        logger.info("Calibrated BCrypt strength {} (~{} ms per hash)", strength, Duration.ofNanos(nanos).toMillis());
+        return strength;
+    }
+
+    /**
+     * Finds the highest Argon2id iteration count whose hashing time stays within the target time.
+     * Hashing time grows linearly with the iterations, so only the lowest iteration count is measured.
+     *
+     * @return Calibrated Argon2id iterations.
+     */
+    int calibrateArgon2Iterations() {
+        int minIterations = passwordHashingProperties.getArgon2MinIterations();
+        long nanosPerIteration = Math.max(1, measure(argon2(minIterations)) / minIterations);
+        long targetNanos = passwordHashingProperties.getTargetTime().toNanos();
+        int iterations = (int) Math.clamp(targetNanos / nanosPerIteration, minIterations, ARGON2_MAX_ITERATIONS);
+        logger.info("Calibrated Argon2id iterations {} with {} KiB (~{} ms per hash)", iterations,
+                passwordHashingProperties.getArgon2MemoryKib(), Duration.ofNanos(nanosPerIteration * iterations).toMillis());
+        return iterations;
+    }
+
+    private Argon2PasswordEncoder argon2(int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH,
+                passwordHashingProperties.getArgon2Parallelism(), passwordHashingProperties.getArgon2MemoryKib(), iterations);
+    }
+
+    /**
+     * Measures the fastest of a few hashes, after a warm-up hash.
+     *
+     * @param passwordEncoder Password encoder to measure.
+     * @return Hashing time in nanoseconds.
+     */
+    private static long measure(PasswordEncoder passwordEncoder) {
+        passwordEncoder.encode(CALIBRATION_PASSWORD);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            passwordEncoder.encode(CALIBRATION_PASSWORD);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+}
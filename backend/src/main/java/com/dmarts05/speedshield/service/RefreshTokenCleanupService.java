@@ -1,31 +1,73 @@
 package com.dmarts05.speedshield.service;
 
+import com.dmarts05.speedshield.config.RefreshTokenCleanupProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class responsible for cleaning up expired refresh tokens from the database.
+ * Expired tokens are deleted in bounded chunks, each in its own short transaction, so a run never holds
+ * a long transaction or loads the expired tokens into memory.
+ * Disabled when the table is partitioned, since {@link RefreshTokenPartitionManager} then drops expired partitions,
+ * and when refresh tokens are held in memory, since {@link InMemoryRefreshTokenStore} then evicts them as they expire.
  */
 @Service
+@ConditionalOnExpression("!${app.refresh-token-partitioning.enabled:false} and '${app.refresh-token-store.type:jpa}'.equalsIgnoreCase('jpa')")
 public class RefreshTokenCleanupService {
     private final RefreshTokenService refreshTokenService;
+    private final RefreshTokenCleanupProperties refreshTokenCleanupProperties;
+    private final Counter deletedCounter;
+    private final Timer chunkTimer;
+    private final Timer runTimer;
 
     /**
      * Constructs a RefreshTokenCleanupService with the required dependencies.
      *
-     * @param refreshTokenService Service for managing refresh tokens.
+     * @param refreshTokenService           Service for managing refresh tokens.
+     * @param refreshTokenCleanupProperties Refresh token cleanup properties configuration.
+     * @param meterRegistry                 Registry for the cleanup metrics.
      */
-    public RefreshTokenCleanupService(RefreshTokenService refreshTokenService) {
+    public RefreshTokenCleanupService(RefreshTokenService refreshTokenService, RefreshTokenCleanupProperties refreshTokenCleanupProperties, MeterRegistry meterRegistry) {
         this.refreshTokenService = refreshTokenService;
+        this.refreshTokenCleanupProperties = refreshTokenCleanupProperties;
+        this.deletedCounter = Counter.builder("refresh.tokens.cleanup.deleted")
+                .description("Expired refresh tokens deleted by the cleanup")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("refresh.tokens.cleanup.chunk")
+                .description("Time taken to delete a chunk of expired refresh tokens")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("refresh.tokens.cleanup.run")
+                .description("Time taken by a whole cleanup run")
+                .register(meterRegistry);
     }
 
-
     /**
      * Scheduled method to cleanup expired refresh tokens from the database.
-     * This method runs at midnight every day (00:00:00).
+     * Deletes chunks until one comes back partially filled or the maximum chunks per run is reached.
+     *
+     * @return Number of expired refresh tokens deleted.
      */
-    @Scheduled(cron = "0 0 0 * * *")
-    public void cleanupExpiredTokens() {
-        refreshTokenService.deleteAllExpiredTokens();
+    @Scheduled(fixedDelayString = "${app.refresh-token-cleanup.interval}", initialDelayString = "${app.refresh-token-cleanup.interval}")
+    public long cleanupExpiredTokens() {
+        return runTimer.record(this::deleteExpiredChunks);
+    }
+
+    private long deleteExpiredChunks() {
+        int chunkSize = refreshTokenCleanupProperties.getChunkSize();
+        long totalDeleted = 0;
+        for (int chunk = 0; chunk < refreshTokenCleanupProperties.getMaxChunksPerRun(); chunk++) {
+            int deleted = chunkTimer.record(() -> refreshTokenService.deleteExpiredTokens(chunkSize));
+            deletedCounter.increment(deleted);
+            totalDeleted += deleted;
+            if (deleted < chunkSize) {
+                break;
+            }
+        }
+
+        return totalDeleted;
     }
 }
@@ -0,0 +1,138 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.config.RefreshTokenPartitioningProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Service class that maintains the daily partitions of the refresh tokens table, which is range partitioned by
+ * expiry date. Partitions are created ahead of time for every day a new refresh token may expire on, and a partition
+ * is dropped whole once all its refresh tokens have expired, so expiry costs the same regardless of the table size.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.refresh-token-partitioning", name = "enabled", havingValue = "true")
+public class RefreshTokenPartitionManager {
+    /**
+     * Prefix of the partition names, followed by the UTC day of the expiry dates they hold (yyyyMMdd).
+     */
+    public static final String PARTITION_PREFIX = "refresh_tokens_p";
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPartitionManager.class);
+    private static final DateTimeFormatter PARTITION_DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JwtProperties jwtProperties;
+    private final RefreshTokenPartitioningProperties refreshTokenPartitioningProperties;
+
+    /**
+     * Constructs a RefreshTokenPartitionManager with the required dependencies.
+     *
+     * @param jdbcTemplate                       JDBC template used to run the partition DDL.
+     * @param jwtProperties                      JWT properties configuration.
+     * @param refreshTokenPartitioningProperties Refresh token partitioning properties configuration.
+     */
+    public RefreshTokenPartitionManager(JdbcTemplate jdbcTemplate, JwtProperties jwtProperties, RefreshTokenPartitioningProperties refreshTokenPartitioningProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jwtProperties = jwtProperties;
+        this.refreshTokenPartitioningProperties = refreshTokenPartitioningProperties;
+    }
+
+    /**
+     * Scheduled method that creates the upcoming partitions and drops the expired ones.
+     * Runs at startup and then after every maintenance interval.
+     */
+    @Scheduled(fixedDelayString = "${app.refresh-token-partitioning.maintenance-interval}")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            logger.warn("Refresh token partitioning is enabled but refresh_tokens is not partitioned, run db/refresh_tokens_partitioned.sql");
+            return;
+        }
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        createPartitions(today);
+        dropExpiredPartitions(today);
+    }
+
+    /**
+     * Creates the partitions from today up to the last day a refresh token issued now may expire on,
+     * plus the configured number of partitions ahead.
+     *
+     * @param today Current UTC day.
+     */
+    void createPartitions(LocalDate today) {
+        long lifetimeDays = jwtProperties.getRefreshExpiresIn().toDays() + 1;
+        LocalDate lastDay = today.plusDays(lifetimeDays + refreshTokenPartitioningProperties.getPartitionsAhead());
+        for (LocalDate day = today; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day)
+                    + " PARTITION OF refresh_tokens FOR VALUES FROM ('" + startOf(day) + "') TO ('" + startOf(day.plusDays(1)) + "')");
+        }
+    }
+
+    /**
+     * Detaches and drops the partitions whose whole range has already expired.
+     *
+     * @param today Current UTC day.
+     * @return Number of partitions dropped.
+     */
+    int dropExpiredPartitions(LocalDate today) {
+        int dropped = 0;
+        for (String partition : findPartitions()) {
+            LocalDate day = parsePartitionDay(partition);
+            if (day == null || !day.isBefore(today)) {
+                continue;
+            }
+            // Detaching concurrently avoids holding an exclusive lock on refresh_tokens while the partition is dropped
+            jdbcTemplate.execute("ALTER TABLE refresh_tokens DETACH PARTITION " + partition + " CONCURRENTLY");
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            dropped++;
+        }
+        if (dropped > 0) {
+            logger.info("Dropped {} expired refresh token partitions", dropped);
+        }
+
+        return dropped;
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('refresh_tokens'))", Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private List<String> findPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass('refresh_tokens')",
+                String.class);
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_DAY_FORMAT.format(day);
+    }
+
+    private static LocalDate parsePartitionDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_DAY_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+}
@@ -6,46 +6,40 @@ import com.dmarts05.speedshield.exception.JwtAndRefreshTokenMismatchException;
 import com.dmarts05.speedshield.exception.RefreshTokenNotFoundException;
 import com.dmarts05.speedshield.model.RefreshTokenEntity;
 import com.dmarts05.speedshield.model.UserEntity;
-import com.dmarts05.speedshield.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.UUID;
 
 /**
- * Service class that manages operations related to refresh tokens.
+ * Service class that manages operations related to refresh tokens, which are kept in the configured
+ * {@link RefreshTokenStore}.
  */
 @Service
 public class RefreshTokenService {
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final JwtService jwtService;
     private final JwtProperties jwtProperties;
     private final UserService userService;
+    private final Timer rotateTimer;
 
     /**
      * Constructs a RefreshTokenService with required dependencies.
      *
-     * @param refreshTokenRepository Repository for managing refresh tokens.
-     * @param jwtService             Service for handling JWT operations.
-     * @param jwtProperties          JWT properties configuration.
-     * @param userService            Service for managing user-related operations.
+     * @param refreshTokenStore Store holding the refresh tokens.
+     * @param jwtService        Service for handling JWT operations.
+     * @param jwtProperties     JWT properties configuration.
+     * @param userService       Service for managing user-related operations.
+     * @param meterRegistry     Registry for the refresh token timers.
      */
-    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, JwtService jwtService, JwtProperties jwtProperties, UserService userService) {
-        this.refreshTokenRepository = refreshTokenRepository;
+    public RefreshTokenService(RefreshTokenStore refreshTokenStore, JwtService jwtService, JwtProperties jwtProperties, UserService userService, MeterRegistry meterRegistry) {
+        this.refreshTokenStore = refreshTokenStore;
         this.jwtService = jwtService;
         this.jwtProperties = jwtProperties;
         this.userService = userService;
-    }
-
-    /**
-     * Retrieves a refresh token entity by its token string.
-     *
-     * @param token Token string of the refresh token.
-     * @return RefreshTokenEntity associated with the token.
-     * @throws RefreshTokenNotFoundException If the refresh token is not found in the repository.
-     */
-    public RefreshTokenEntity findByToken(String token) {
-        return refreshTokenRepository.findByToken(token).orElseThrow(RefreshTokenNotFoundException::new);
+        this.rotateTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.REFRESH_TOKEN_ROTATE);
     }
 
     /**
@@ -55,53 +49,74 @@ public class RefreshTokenService {
      * @return Token string of the newly generated refresh token.
      */
     public String generateRefreshToken(UserEntity userEntity) {
-        RefreshTokenEntity refreshToken = RefreshTokenEntity.builder()
-                .userEntity(userEntity)
-                .token(UUID.randomUUID().toString())
-                .expiryDate(Instant.now().plusMillis(jwtProperties.getRefreshExpiresIn().toMillis()))
-                .build();
-        refreshTokenRepository.save(refreshToken);
-
+        RefreshTokenEntity refreshToken = buildRefreshToken(userEntity);
+        refreshTokenStore.insert(refreshToken);
         return refreshToken.getToken();
     }
 
     /**
-     * Deletes the given refresh token entity from the repository.
+     * Deletes a chunk of expired refresh tokens from the store.
      *
-     * @param refreshTokenEntity Refresh token entity to delete.
+     * @param chunkSize Maximum number of expired refresh tokens to delete.
+     * @return Number of expired refresh tokens deleted.
      */
-    public void delete(RefreshTokenEntity refreshTokenEntity) {
-        refreshTokenRepository.delete(refreshTokenEntity);
+    public int deleteExpiredTokens(int chunkSize) {
+        Instant now = Instant.now();
+        return refreshTokenStore.deleteExpired(now, chunkSize);
     }
 
     /**
-     * Deletes all expired refresh tokens from the repository.
+     * Rotates a refresh token atomically: the old refresh token is claimed and removed, validated against
+     * the JWT token and its associated user, and a new refresh token is stored in its place.
+     * Concurrent rotations of the same refresh token cannot both succeed, since only one of them can claim it.
+     * If validation fails, the old refresh token is kept.
+     *
+     * @param token        JWT token to validate against the refresh token.
+     * @param refreshToken Refresh token to rotate.
+     * @return The newly generated refresh token entity, holding its associated user.
+     * @throws RefreshTokenNotFoundException       If the refresh token does not exist or was already rotated.
+     * @throws JwtAndRefreshTokenMismatchException If the JWT and refresh token do not match.
+     * @throws ExpiredRefreshTokenException        If the refresh token has expired.
      */
-    public void deleteAllExpiredTokens() {
-        Instant now = Instant.now();
-        refreshTokenRepository.deleteAllByExpiryDateBefore(now);
+    public RefreshTokenEntity rotateRefreshToken(String token, String refreshToken) {
+        return rotateTimer.record(() -> rotate(userService.findByUsername(jwtService.extractUsername(token)), refreshToken));
     }
 
     /**
-     * Validates the given refresh token against a JWT token and its associated user.
+     * Rotates a refresh token of an already resolved user atomically, as
+     * {@link #rotateRefreshToken(String, String)} does for the user the JWT token was issued to.
      *
-     * @param token        JWT token to validate against the refresh token.
-     * @param refreshToken Refresh token to validate.
-     * @throws JwtAndRefreshTokenMismatchException If the JWT and refresh token do not match.
+     * @param userEntity   User the JWT token being refreshed was issued to.
+     * @param refreshToken Refresh token to rotate.
+     * @return The newly generated refresh token entity, holding its associated user.
+     * @throws RefreshTokenNotFoundException       If the refresh token does not exist or was already rotated.
+     * @throws JwtAndRefreshTokenMismatchException If the refresh token belongs to another user.
      * @throws ExpiredRefreshTokenException        If the refresh token has expired.
      */
-    public void validateRefreshToken(String token, String refreshToken) {
-        String username = jwtService.extractUsername(token);
-        UserEntity userEntity = userService.findByUsername(username);
-        RefreshTokenEntity refreshTokenEntity = refreshTokenRepository.findByToken(refreshToken)
-                .orElseThrow(RefreshTokenNotFoundException::new);
-        boolean doesMatch = refreshTokenEntity.getUserEntity().getId().equals(userEntity.getId());
-        if (!doesMatch) {
-            throw new JwtAndRefreshTokenMismatchException();
-        }
-        boolean isExpired = refreshTokenEntity.getExpiryDate().compareTo(Instant.now()) < 0;
-        if (isExpired) {
-            throw new ExpiredRefreshTokenException();
-        }
+    public RefreshTokenEntity rotateRefreshToken(UserEntity userEntity, String refreshToken) {
+        return rotateTimer.record(() -> rotate(userEntity, refreshToken));
+    }
+
+    private RefreshTokenEntity rotate(UserEntity userEntity, String refreshToken) {
+        return refreshTokenStore.rotate(refreshToken, claimedRefreshToken -> {
+            boolean doesMatch = claimedRefreshToken.getUserId().equals(userEntity.getId());
+            if (!doesMatch) {
+                throw new JwtAndRefreshTokenMismatchException();
+            }
+            boolean isExpired = claimedRefreshToken.getExpiryDate().compareTo(Instant.now()) < 0;
+            if (isExpired) {
+                throw new ExpiredRefreshTokenException();
+            }
+
+            return buildRefreshToken(userEntity);
+        });
+    }
+
+    private RefreshTokenEntity buildRefreshToken(UserEntity userEntity) {
+        return RefreshTokenEntity.builder()
+                .userEntity(userEntity)
+                .token(UUID.randomUUID().toString())
+                .expiryDate(Instant.now().plusMillis(jwtProperties.getRefreshExpiresIn().toMillis()))
+                .build();
     }
 }
@@ -0,0 +1,42 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.exception.RefreshTokenNotFoundException;
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.repository.ClaimedRefreshToken;
+
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Storage of the refresh tokens managed by {@link RefreshTokenService}.
+ * The implementation is selected with {@code app.refresh-token-store.type}.
+ */
+public interface RefreshTokenStore {
+    /**
+     * Stores a new refresh token on its own, such as the one issued on login.
+     *
+     * @param refreshToken Refresh token to store.
+     */
+    void insert(RefreshTokenEntity refreshToken);
+
+    /**
+     * Atomically claims a refresh token and stores the replacement built from it.
+     * Only one of several concurrent rotations of the same refresh token can claim it.
+     * If building the replacement throws, the claimed refresh token is kept.
+     *
+     * @param refreshToken Token string of the refresh token to claim.
+     * @param replacement  Function validating the claimed refresh token and building its replacement.
+     * @return The stored replacement refresh token.
+     * @throws RefreshTokenNotFoundException If the refresh token does not exist or was already claimed.
+     */
+    RefreshTokenEntity rotate(String refreshToken, Function<ClaimedRefreshToken, RefreshTokenEntity> replacement);
+
+    /**
+     * Deletes a chunk of the refresh tokens that expired before the limit date.
+     *
+     * @param limitDate Refresh tokens expiring before this instant are deleted.
+     * @param chunkSize Maximum number of refresh tokens to delete.
+     * @return Number of refresh tokens deleted.
+     */
+    int deleteExpired(Instant limitDate, int chunkSize);
+}
@@ -0,0 +1,47 @@
+package com.dmarts05.speedshield.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the size of the refresh tokens table.
+ * The row count is the planner estimate maintained by Postgres, summed over the partitions when the table is
+ * partitioned, so a scrape never has to count millions of rows.
+ */
+@Component
+public class RefreshTokenTableMetrics implements MeterBinder {
+    private static final String ESTIMATED_ROWS_QUERY = "SELECT coalesce(sum(greatest(c.reltuples, 0)), 0) FROM pg_class c"
+            + " WHERE c.oid = to_regclass('refresh_tokens')"
+            + " OR c.oid IN (SELECT i.inhrelid FROM pg_inherits i WHERE i.inhparent = to_regclass('refresh_tokens'))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a RefreshTokenTableMetrics with the required dependencies.
+     *
+     * @param jdbcTemplate JDBC template used to read the table statistics.
+     */
+    public RefreshTokenTableMetrics(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("refresh.tokens.rows", this, RefreshTokenTableMetrics::estimateRows)
+                .description("Estimated number of refresh tokens stored")
+                .register(registry);
+    }
+
+    private double estimateRows() {
+        try {
+            Double rows = jdbcTemplate.queryForObject(ESTIMATED_ROWS_QUERY, Double.class);
+            return rows != null ? rows : Double.NaN;
+        } catch (DataAccessException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.RefreshTokenBatchingProperties;
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class that group commits the refresh tokens inserted by concurrent logins.
+ * A single writer thread gathers the pending inserts for up to the maximum delay or the maximum batch size,
+ * writes them in one transaction, so that Hibernate sends them as one JDBC batch, and then releases every waiting
+ * caller. Under login bursts this turns one commit, and one WAL flush, per login into one per batch.
+ */
+@Service
+@ConditionalOnProperty(prefix = "app.refresh-token-batching", name = "enabled", havingValue = "true")
+public class RefreshTokenWriteCoalescer implements AutoCloseable {
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingInsert> pendingInserts;
+    private final DistributionSummary batchSizeSummary;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a RefreshTokenWriteCoalescer and starts its writer thread.
+     *
+     * @param refreshTokenRepository         Repository for managing refresh tokens.
+     * @param transactionManager             Transaction manager for the batch transactions.
+     * @param refreshTokenBatchingProperties Refresh token batching properties configuration.
+     * @param meterRegistry                  Registry for the batching metrics.
+     */
+    public RefreshTokenWriteCoalescer(RefreshTokenRepository refreshTokenRepository, PlatformTransactionManager transactionManager, RefreshTokenBatchingProperties refreshTokenBatchingProperties, MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = refreshTokenBatchingProperties.getMaxBatchSize();
+        this.maxDelayNanos = refreshTokenBatchingProperties.getMaxDelay().toNanos();
+        this.pendingInserts = new ArrayBlockingQueue<>(refreshTokenBatchingProperties.getQueueCapacity());
+        this.batchSizeSummary = DistributionSummary.builder("refresh.tokens.batch.size")
+                .description("Refresh tokens inserted per transaction by the write coalescer")
+                .register(meterRegistry);
+        Gauge.builder("refresh.tokens.batch.queue.size", pendingInserts, BlockingQueue::size)
+                .description("Refresh tokens waiting to be written by the write coalescer")
+                .register(meterRegistry);
+        this.writer = Thread.ofVirtual().name("refresh-token-writer").start(this::writeBatches);
+    }
+
+    /**
+     * Inserts a refresh token as part of the next batch, waiting until the batch has been committed.
+     * If the queue is full or the coalescer is closed, the refresh token is inserted on its own instead.
+     *
+     * @param refreshToken Refresh token to insert.
+     * @throws RuntimeException The exception that prevented the refresh token from being inserted.
+     */
+    public void insert(RefreshTokenEntity refreshToken) {
+        PendingInsert pendingInsert = new PendingInsert(refreshToken, new CompletableFuture<>());
+        if (closed || !pendingInserts.offer(pendingInsert)) {
+            insertAlone(refreshToken);
+            return;
+        }
+        if (closed) {
+            // The writer may have stopped before taking this insert, so whichever thread drains it writes it
+            writeRemaining();
+        }
+
+        try {
+            pendingInsert.written().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the refresh token batch", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Refresh token batch failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stops the writer thread once the pending inserts have been written.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writeRemaining();
+    }
+
+    private void writeBatches() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (!closed) {
+            try {
+                PendingInsert first = pendingInserts.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingInsert next = pendingInserts.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeRemaining() {
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (pendingInserts.drainTo(batch, maxBatchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingInsert> batch) {
+        try {
+            List<RefreshTokenEntity> refreshTokens = batch.stream().map(PendingInsert::refreshToken).toList();
+            transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.saveAll(refreshTokens));
+            batchSizeSummary.record(batch.size());
+            batch.forEach(pendingInsert -> pendingInsert.written().complete(null));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.getFirst().written().completeExceptionally(e);
+                return;
+            }
+            // A single failing row rolls back the whole batch, so the rows are retried one by one to isolate it
+            for (PendingInsert pendingInsert : batch) {
+                try {
+                    insertAlone(pendingInsert.refreshToken());
+                    pendingInsert.written().complete(null);
+                } catch (RuntimeException insertException) {
+                    pendingInsert.written().completeExceptionally(insertException);
+                }
+            }
+        }
+    }
+
+    private void insertAlone(RefreshTokenEntity refreshToken) {
+        // Ids assigned to a rolled back batch are discarded, so that the row is persisted rather than merged
+        refreshToken.setId(null);
+        transactionTemplate.executeWithoutResult(status -> refreshTokenRepository.save(refreshToken));
+        batchSizeSummary.record(1);
+    }
+
+    private record PendingInsert(RefreshTokenEntity refreshToken, CompletableFuture<Void> written) {
+    }
+}
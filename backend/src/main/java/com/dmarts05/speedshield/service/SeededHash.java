@@ -0,0 +1,30 @@
+package com.dmarts05.speedshield.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Seeded 64-bit string hash shared by the probabilistic data structures.
+ * A random seed per structure keeps attackers from precomputing colliding keys.
+ */
+final class SeededHash {
+    private SeededHash() {
+    }
+
+    /**
+     * Hashes the key with the given seed.
+     *
+     * @param key  Key to hash.
+     * @param seed Seed of the hash.
+     * @return 64-bit hash of the key.
+     */
+    static long hash(String key, long seed) {
+        long hash = seed;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ b) * 0x100000001b3L;
+        }
+        // Final mix (splitmix64) spreads the bits of short keys over the whole hash
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
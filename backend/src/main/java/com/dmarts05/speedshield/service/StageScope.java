@@ -0,0 +1,112 @@
+package com.dmarts05.speedshield.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Scope running independent stages of a request concurrently, each on its own virtual thread.
+ * It follows the shutdown-on-failure policy of {@code StructuredTaskScope}, which is still a preview API in Java 21:
+ * stages never outlive the scope, the first failing stage cancels the others, and its exception is rethrown
+ * to the owner of the scope as is.
+ * <p>
+ * A scope is confined to the thread that opened it, which must fork every stage, {@link #join()} and then close it.
+ */
+final class StageScope implements AutoCloseable {
+    private static final ThreadFactory THREAD_FACTORY = Thread.ofVirtual().name("auth-stage-", 0).factory();
+
+    // Failing stages cancel their siblings from their own thread, while the owner may still be forking
+    private final List<FutureTask<?>> stages = new CopyOnWriteArrayList<>();
+    private final List<Thread> threads = new ArrayList<>(2);
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    /**
+     * Starts a stage on a new virtual thread.
+     *
+     * @param stage Stage to run.
+     * @param <T>   Type of the stage result.
+     * @return Supplier of the stage result, only available once the scope has been joined without failure.
+     */
+    <T> Supplier<T> fork(Supplier<T> stage) {
+        FutureTask<T> task = new FutureTask<>(stage::get) {
+            @Override
+            protected void setException(Throwable throwable) {
+                failure.compareAndSet(null, throwable);
+                super.setException(throwable);
+                cancelStages();
+            }
+        };
+        Thread thread = THREAD_FACTORY.newThread(task);
+        stages.add(task);
+        threads.add(thread);
+        if (failure.get() != null) {
+            task.cancel(true);
+        }
+        thread.start();
+        return task::resultNow;
+    }
+
+    /**
+     * Waits for every stage to complete, rethrowing the first failure.
+     *
+     * @throws RuntimeException      The exception of the first failing stage, if it is unchecked.
+     * @throws IllegalStateException If the first failing stage threw a checked exception or the wait was interrupted.
+     */
+    void join() {
+        for (FutureTask<?> stage : stages) {
+            try {
+                stage.get();
+            } catch (InterruptedException e) {
+                cancelStages();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for concurrent stages", e);
+            } catch (ExecutionException | CancellationException e) {
+                // The first failure is rethrown below, whichever stage it came from
+            }
+        }
+
+        Throwable throwable = failure.get();
+        if (throwable instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (throwable instanceof Error error) {
+            throw error;
+        }
+        if (throwable != null) {
+            throw new IllegalStateException("Concurrent stage failed", throwable);
+        }
+    }
+
+    /**
+     * Cancels the stages still running and waits for their threads to terminate.
+     */
+    @Override
+    public void close() {
+        cancelStages();
+        boolean interrupted = false;
+        for (Thread thread : threads) {
+            while (thread.isAlive()) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void cancelStages() {
+        for (FutureTask<?> stage : stages) {
+            stage.cancel(true);
+        }
+    }
+}
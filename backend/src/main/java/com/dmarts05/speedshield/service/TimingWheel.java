@@ -0,0 +1,115 @@
+package com.dmarts05.speedshield.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Hashed timing wheel indexing entries by expiry instant, so that finding the expired entries only visits the
+ * buckets of the ticks that elapsed instead of every entry.
+ * Each bucket holds the entries due on the ticks that map to it, and entries due more than a full rotation ahead
+ * are left in their bucket until the rotation in which they are due.
+ * Entries can be added and removed concurrently, while ticks are advanced by one thread at a time.
+ *
+ * @param <E> Type of the indexed entries, whose equality is used to remove them.
+ */
+final class TimingWheel<E> {
+    private static final int MAX_BUCKETS = 1 << 20;
+
+    private final long tickMillis;
+    private final Function<E, Instant> expiryOf;
+    private final AtomicReferenceArray<Set<E>> buckets;
+    private volatile long lastTick;
+
+    /**
+     * Constructs a TimingWheel covering the given span in one rotation.
+     *
+     * @param tickDuration Granularity of the wheel.
+     * @param span         Time covered by one rotation of the wheel, usually the longest time to expiry.
+     * @param expiryOf     Function retrieving the expiry instant of an entry.
+     * @param now          Current instant, from which ticks are advanced.
+     */
+    TimingWheel(Duration tickDuration, Duration span, Function<E, Instant> expiryOf, Instant now) {
+        this.tickMillis = tickDuration.toMillis();
+        this.expiryOf = expiryOf;
+        this.buckets = new AtomicReferenceArray<>((int) Math.min(MAX_BUCKETS, Math.ceilDiv(span.toMillis(), tickMillis) + 1));
+        this.lastTick = Math.floorDiv(now.toEpochMilli(), tickMillis);
+    }
+
+    /**
+     * Adds an entry, which is expired on the first tick at or after its expiry instant.
+     *
+     * @param entry Entry to add.
+     */
+    void add(E entry) {
+        int index = index(dueTick(entry));
+        Set<E> bucket = buckets.get(index);
+        if (bucket == null) {
+            buckets.compareAndSet(index, null, ConcurrentHashMap.newKeySet());
+            bucket = buckets.get(index);
+        }
+        bucket.add(entry);
+    }
+
+    /**
+     * Removes an entry before it expires.
+     * An entry that was already overdue when added may be missed, in which case it is still expired on the next tick.
+     *
+     * @param entry Entry to remove.
+     */
+    void remove(E entry) {
+        Set<E> bucket = buckets.get(index(dueTick(entry)));
+        if (bucket != null) {
+            bucket.remove(entry);
+        }
+    }
+
+    /**
+     * Advances the wheel up to the tick of the given instant, removing the entries due by then.
+     *
+     * @param now     Current instant.
+     * @param expired Consumer of each removed entry.
+     * @return Number of entries removed.
+     */
+    synchronized int advance(Instant now, Consumer<E> expired) {
+        long nowTick = Math.floorDiv(now.toEpochMilli(), tickMillis);
+        // After a pause longer than a rotation, each bucket is still visited only once
+        long firstTick = Math.max(lastTick + 1, nowTick - buckets.length() + 1);
+        int removed = 0;
+        for (long tick = firstTick; tick <= nowTick; tick++) {
+            Set<E> bucket = buckets.get(index(tick));
+            if (bucket == null) {
+                continue;
+            }
+            for (Iterator<E> iterator = bucket.iterator(); iterator.hasNext(); ) {
+                E entry = iterator.next();
+                if (tickOf(expiryOf.apply(entry)) <= nowTick) {
+                    iterator.remove();
+                    expired.accept(entry);
+                    removed++;
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, nowTick);
+
+        return removed;
+    }
+
+    private long dueTick(E entry) {
+        // Overdue entries go to the next tick, since the bucket of their own tick may not be visited for a rotation
+        return Math.max(tickOf(expiryOf.apply(entry)), lastTick + 1);
+    }
+
+    private long tickOf(Instant expiry) {
+        return Math.ceilDiv(expiry.toEpochMilli(), tickMillis);
+    }
+
+    private int index(long tick) {
+        return (int) Math.floorMod(tick, (long) buckets.length());
+    }
+}
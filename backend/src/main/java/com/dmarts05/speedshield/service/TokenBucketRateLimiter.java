@@ -0,0 +1,80 @@
+package com.dmarts05.speedshield.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket rate limiter keyed by an arbitrary string.
+ * Each bucket is a single {@link AtomicLong} holding the theoretical arrival time of the next attempt
+ * (generic cell rate algorithm), so an attempt costs one compare-and-set and no lock.
+ * Buckets live in a size-bounded cache and expire once idle long enough to have refilled completely,
+ * at which point dropping them is indistinguishable from keeping them.
+ */
+public class TokenBucketRateLimiter {
+    private final long refillIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * Constructs a TokenBucketRateLimiter.
+     *
+     * @param capacity       Maximum burst of attempts per key.
+     * @param refillInterval Time to regain one attempt.
+     * @param maxKeys        Maximum number of buckets kept.
+     */
+    public TokenBucketRateLimiter(int capacity, Duration refillInterval, long maxKeys) {
+        this.refillIntervalNanos = refillInterval.toNanos();
+        this.burstToleranceNanos = refillIntervalNanos * (capacity - 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(burstToleranceNanos + refillIntervalNanos))
+                .build();
+    }
+
+    /**
+     * Takes an attempt from the bucket of the key, if one is available.
+     *
+     * @param key Key of the bucket.
+     * @return Zero if the attempt is allowed, otherwise the time until the next attempt is available.
+     */
+    public Duration tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * Takes several attempts at once from the bucket of the key, if that many are available.
+     * More attempts than the capacity of the bucket are never available.
+     *
+     * @param key      Key of the bucket.
+     * @param attempts Number of attempts to take.
+     * @return Zero if the attempts are allowed, otherwise the time until that many attempts are available.
+     */
+    public Duration tryAcquire(String key, int attempts) {
+        long now = System.nanoTime();
+        long costNanos = refillIntervalNanos * attempts;
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long theoreticalArrival = bucket.get();
+            long arrival = theoreticalArrival - now > 0 ? theoreticalArrival : now;
+            long wait = arrival + costNanos - refillIntervalNanos - now - burstToleranceNanos;
+            if (wait > 0) {
+                return Duration.ofNanos(wait);
+            }
+            if (bucket.compareAndSet(theoreticalArrival, arrival + costNanos)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the estimated number of buckets currently kept.
+     *
+     * @return Number of buckets.
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,118 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.TokenIntrospectionProperties;
+import com.dmarts05.speedshield.dto.TokenIntrospectionDto;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Service class that introspects batches of JWT tokens on behalf of API gateways, in the style of RFC 7662.
+ * Each token is verified with {@link JwtService} and checked against the revocation denylist.
+ */
+@Service
+public class TokenIntrospectionService implements AutoCloseable {
+    private static final TokenIntrospectionDto INACTIVE = TokenIntrospectionDto.builder().active(false).build();
+
+    private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
+    private final TokenIntrospectionProperties tokenIntrospectionProperties;
+    private final ForkJoinPool verificationPool;
+
+    /**
+     * Constructs a TokenIntrospectionService with its own verification thread pool.
+     *
+     * @param jwtService                   Service for verifying JWT tokens.
+     * @param tokenRevocationService       Service for checking whether a token was revoked.
+     * @param tokenIntrospectionProperties Token introspection properties configuration.
+     */
+    public TokenIntrospectionService(JwtService jwtService, TokenRevocationService tokenRevocationService, TokenIntrospectionProperties tokenIntrospectionProperties) {
+        this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.tokenIntrospectionProperties = tokenIntrospectionProperties;
+        this.verificationPool = new ForkJoinPool(tokenIntrospectionProperties.getParallelism(), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("token-introspection-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Introspects a batch of JWT tokens. Batches from the parallel threshold up are verified in parallel
+     * on platform threads, since signature verification is CPU-bound and gains nothing from virtual threads.
+     *
+     * @param tokens JWT tokens to introspect.
+     * @return Introspection results, in the order of the tokens.
+     */
+    public List<TokenIntrospectionDto> introspect(List<String> tokens) {
+        if (tokens.size() < tokenIntrospectionProperties.getParallelThreshold()) {
+            return tokens.stream().map(this::introspect).toList();
+        }
+
+        List<ForkJoinTask<TokenIntrospectionDto>> tasks = tokens.stream()
+                .map(token -> verificationPool.submit(() -> introspect(token)))
+                .toList();
+        return tasks.stream().map(ForkJoinTask::join).toList();
+    }
+
+    /**
+     * Introspects a single JWT token.
+     *
+     * @param token JWT token to introspect.
+     * @return Claims of the token if it is active, or an inactive result if it is invalid, expired or revoked.
+     */
+    public TokenIntrospectionDto introspect(String token) {
+        Optional<VerifiedToken> verifiedToken = jwtService.verifyToken(token);
+        if (verifiedToken.isEmpty() || tokenRevocationService.isRevoked(verifiedToken.get().getTokenId())) {
+            return INACTIVE;
+        }
+
+        VerifiedToken claims = verifiedToken.get();
+        return TokenIntrospectionDto.builder()
+                .active(true)
+                .sub(claims.getSubject())
+                .uid(claims.getUserId())
+                .role(claims.getRole())
+                .iss(claims.getIssuer())
+                .aud(claims.getAudience())
+                .iat(claims.getIssuedAt() != null ? claims.getIssuedAt().getEpochSecond() : null)
+                .exp(claims.getExpiration() != null ? claims.getExpiration().getEpochSecond() : null)
+                .jti(claims.getTokenId())
+                .build();
+    }
+
+    /**
+     * Computes how long the introspection results may be cached: until the first active token expires,
+     * and never longer than the configured maximum cache age.
+     *
+     * @param results Introspection results.
+     * @param now     Current instant.
+     * @return Time the results may be cached for.
+     */
+    public Duration cacheLifetime(List<TokenIntrospectionDto> results, Instant now) {
+        Duration lifetime = tokenIntrospectionProperties.getMaxCacheAge();
+        for (TokenIntrospectionDto result : results) {
+            if (result.isActive() && result.getExp() != null) {
+                Duration remaining = Duration.between(now, Instant.ofEpochSecond(result.getExp()));
+                if (remaining.compareTo(lifetime) < 0) {
+                    lifetime = remaining;
+                }
+            }
+        }
+        return lifetime.isNegative() ? Duration.ZERO : lifetime;
+    }
+
+    /**
+     * Shuts down the verification thread pool.
+     */
+    @Override
+    public void close() {
+        verificationPool.shutdown();
+    }
+}
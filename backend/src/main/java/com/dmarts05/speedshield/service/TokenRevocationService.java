@@ -0,0 +1,146 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.TokenRevocationProperties;
+import com.dmarts05.speedshield.model.RevokedTokenEntity;
+import com.dmarts05.speedshield.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service class that revokes access tokens before they expire and tells whether a token was revoked.
+ * Revoked token ids are persisted and kept in memory in an exact denylist fronted by a Bloom filter,
+ * so checking a token that was never revoked costs a few bit lookups and no database access.
+ * Entries are pruned once their token has expired, and the denylist is rebuilt from the database at startup.
+ */
+@Service
+public class TokenRevocationService implements SmartInitializingSingleton {
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TokenRevocationProperties tokenRevocationProperties;
+    private final Map<String, Instant> revokedTokens = new ConcurrentHashMap<>();
+    private final Counter rejectedCounter;
+    private volatile BloomFilter bloomFilter;
+    private volatile int bloomFilterCapacity;
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    /**
+     * Constructs a TokenRevocationService with the required dependencies.
+     *
+     * @param revokedTokenRepository    Repository for revoked tokens.
+     * @param tokenRevocationProperties Token revocation properties configuration.
+     * @param meterRegistry             Registry for the denylist metrics.
+     */
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository, TokenRevocationProperties tokenRevocationProperties, MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.tokenRevocationProperties = tokenRevocationProperties;
+        this.bloomFilterCapacity = tokenRevocationProperties.getExpectedRevocations();
+        this.bloomFilter = new BloomFilter(bloomFilterCapacity, tokenRevocationProperties.getFalsePositiveProbability());
+        this.rejectedCounter = Counter.builder("auth.token.revocation.rejected")
+                .description("Requests rejected because their access token was revoked")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.revocation.denylist.size", revokedTokens, Map::size)
+                .description("Unexpired revoked access tokens held in memory")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.revocation.bloom.memory", this, service -> service.bloomFilter.sizeInBytes())
+                .description("Memory used by the Bloom filter in front of the denylist")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuilds the denylist from the database before the application starts serving requests.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findAllByExpiryDateAfter(now)
+                .forEach(revokedToken -> deny(revokedToken.getTokenId(), revokedToken.getExpiryDate()));
+        lastSync = now;
+    }
+
+    /**
+     * Checks whether the token with the given id was revoked.
+     *
+     * @param tokenId Identifier ("jti" claim) of the token, or null if the token has none.
+     * @return True if the token was revoked, false otherwise.
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+
+        // Almost no token is ever revoked, so the Bloom filter settles nearly every check on its own
+        if (!bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        boolean revoked = revokedTokens.containsKey(tokenId);
+        if (revoked) {
+            rejectedCounter.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Revokes the token with the given id until it expires.
+     *
+     * @param tokenId    Identifier ("jti" claim) of the token to revoke.
+     * @param expiryDate Expiry date and time of the token.
+     */
+    public void revoke(String tokenId, Instant expiryDate) {
+        revokedTokenRepository.save(new RevokedTokenEntity(tokenId, expiryDate, Instant.now()));
+        deny(tokenId, expiryDate);
+    }
+
+    /**
+     * Scheduled method that loads the tokens revoked by other instances and prunes the expired ones.
+     */
+    @Scheduled(fixedDelayString = "${app.token-revocation.sync-interval}", initialDelayString = "${app.token-revocation.sync-interval}")
+    public void synchronize() {
+        Instant now = Instant.now();
+        // Look back one extra interval so that revocations committed late or by an instance with a skewed clock are not missed
+        revokedTokenRepository.findAllByRevokedAtAfter(lastSync.minus(tokenRevocationProperties.getSyncInterval()))
+                .stream()
+                .filter(revokedToken -> revokedToken.getExpiryDate().isAfter(now))
+                .forEach(revokedToken -> deny(revokedToken.getTokenId(), revokedToken.getExpiryDate()));
+        lastSync = now;
+
+        prune(now);
+        revokedTokenRepository.deleteExpired(now);
+    }
+
+    /**
+     * Removes the tokens that expired before the given instant from the denylist.
+     * Bloom filters cannot forget keys, so a new one is built from the remaining tokens when any was removed
+     * or when the current one holds more tokens than it was sized for.
+     *
+     * @param now Current instant.
+     */
+    synchronized void prune(Instant now) {
+        boolean removed = revokedTokens.values().removeIf(expiryDate -> !expiryDate.isAfter(now));
+        if (!removed && revokedTokens.size() <= bloomFilterCapacity) {
+            return;
+        }
+
+        int capacity = Math.max(tokenRevocationProperties.getExpectedRevocations(), revokedTokens.size() * 2);
+        BloomFilter rebuilt = new BloomFilter(capacity, tokenRevocationProperties.getFalsePositiveProbability());
+        revokedTokens.keySet().forEach(rebuilt::add);
+        bloomFilter = rebuilt;
+        bloomFilterCapacity = capacity;
+    }
+
+    /**
+     * Adds the token to the denylist. Synchronized with {@link #prune(Instant)},
+     * so that a token denied while the Bloom filter is rebuilt is never left out of it.
+     */
+    private synchronized void deny(String tokenId, Instant expiryDate) {
+        revokedTokens.put(tokenId, expiryDate);
+        bloomFilter.add(tokenId);
+    }
+}
@@ -1,26 +1,34 @@
 package com.dmarts05.speedshield.service;
 
+import com.dmarts05.speedshield.model.UserEntity;
 import com.dmarts05.speedshield.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 /**
  * Service class that implements Spring Security UserDetailsService to load user details
- * from UserRepository based on username.
+ * from UserRepository based on username, and UserDetailsPasswordService to store password hashes
+ * upgraded after a successful login.
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
     private final UserRepository userRepository;
+    private final Timer userLookupTimer;
 
     /**
      * Constructs the CustomUserDetailsService with a UserRepository dependency.
      *
      * @param userRepository The repository for user data access.
+     * @param meterRegistry  Registry for the user lookup timer.
      */
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.userLookupTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.USER_LOOKUP);
     }
 
     /**
@@ -32,7 +40,21 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        return userLookupTimer.record(() -> userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User with given username not found"));
     }
+
+    /**
+     * Stores the password hash of a user, re-encoded with the current algorithm and cost after a successful login.
+     *
+     * @param user        The user whose password hash is upgraded.
+     * @param newPassword The upgraded password hash.
+     * @return UserDetails object with the upgraded password hash.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserEntity userEntity = (UserEntity) user;
+        userEntity.setPassword(newPassword);
+        return userRepository.save(userEntity);
+    }
 }
@@ -3,6 +3,8 @@ package com.dmarts05.speedshield.service;
 import com.dmarts05.speedshield.exception.UserNotFoundException;
 import com.dmarts05.speedshield.model.UserEntity;
 import com.dmarts05.speedshield.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 
 /**
@@ -12,14 +14,17 @@ import org.springframework.stereotype.Service;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final Timer userLookupTimer;
 
     /**
      * Constructs a UserService instance with the specified UserRepository.
      *
      * @param userRepository Repository for managing user entities.
+     * @param meterRegistry  Registry for the user lookup timer.
      */
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.userLookupTimer = AuthMetrics.stageTimer(meterRegistry, AuthMetrics.USER_LOOKUP);
     }
 
     /**
@@ -30,7 +35,7 @@ public class UserService {
      * @throws UserNotFoundException If no user entity is found with the specified username.
      */
     public UserEntity findByUsername(String username) {
-        return userRepository.findByUsername(username).orElseThrow(UserNotFoundException::new);
+        return userLookupTimer.record(() -> userRepository.findByUsername(username)).orElseThrow(UserNotFoundException::new);
     }
 
     /**
@@ -0,0 +1,96 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.model.Role;
+import io.jsonwebtoken.Claims;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * A JWT whose signature and expiration have already been checked by {@link JwtService}.
+ * Holds the claims needed downstream so the token never has to be parsed again.
+ */
+@Getter
+@Builder
+public class VerifiedToken {
+    /**
+     * Unique identifier ("jti" claim) of the token, if present in the token.
+     */
+    private final String tokenId;
+
+    /**
+     * Subject (username) the token was issued to.
+     */
+    private final String subject;
+
+    /**
+     * Issuer of the token.
+     */
+    private final String issuer;
+
+    /**
+     * Audiences the token is intended for.
+     */
+    private final Set<String> audience;
+
+    /**
+     * Instant at which the token was issued.
+     */
+    private final Instant issuedAt;
+
+    /**
+     * Instant at which the token expires.
+     */
+    private final Instant expiration;
+
+    /**
+     * Identifier of the user the token was issued to, if present in the token.
+     */
+    private final Long userId;
+
+    /**
+     * Role of the user the token was issued to, if present in the token.
+     */
+    private final Role role;
+
+    /**
+     * Creates a verified token from claims produced by a successful signature verification.
+     *
+     * @param claims Verified claims of the token.
+     * @return VerifiedToken holding the relevant claims.
+     */
+    static VerifiedToken fromClaims(Claims claims) {
+        return VerifiedToken.builder()
+                .tokenId(claims.getId())
+                .subject(claims.getSubject())
+                .issuer(claims.getIssuer())
+                .audience(claims.getAudience())
+                .issuedAt(claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null)
+                .expiration(claims.getExpiration() != null ? claims.getExpiration().toInstant() : null)
+                .userId(claims.get(JwtService.USER_ID_CLAIM, Long.class))
+                .role(parseRole(claims.get(JwtService.ROLE_CLAIM, String.class)))
+                .build();
+    }
+
+    /**
+     * Checks whether the token carries the claims needed to authenticate without loading the user.
+     *
+     * @return True if the user id and role claims are present, false otherwise.
+     */
+    public boolean hasUserClaims() {
+        return subject != null && userId != null && role != null;
+    }
+
+    static Role parseRole(String role) {
+        if (role == null) {
+            return null;
+        }
+        try {
+            return Role.valueOf(role);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
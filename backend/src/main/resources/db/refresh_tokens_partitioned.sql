@@ -0,0 +1,52 @@
+-- Converts refresh_tokens into a table range partitioned by expiry_date, one partition per UTC day.
+-- Run once with the application stopped, then set app.refresh-token-partitioning.enabled=true so that
+-- RefreshTokenPartitionManager creates the upcoming partitions and drops the expired ones.
+--
+-- Postgres requires unique constraints on a partitioned table to include the partition key, so the primary key
+-- becomes (id, expiry_date) and token uniqueness is enforced per expiry date. Tokens are random UUIDs, and lookups
+-- by token use the (token, expiry_date) index of every partition.
+-- Hibernate cannot express these constraints, so run with spring.jpa.hibernate.ddl-auto=validate or none.
+
+BEGIN;
+
+ALTER TABLE refresh_tokens RENAME TO refresh_tokens_unpartitioned;
+DROP INDEX IF EXISTS idx_refresh_tokens_expiry_date;
+
+CREATE TABLE refresh_tokens
+(
+    id          BIGINT                      NOT NULL,
+    token       VARCHAR(255)                NOT NULL,
+    expiry_date TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    user_id     BIGINT REFERENCES users (id),
+    PRIMARY KEY (id, expiry_date),
+    UNIQUE (token, expiry_date)
+) PARTITION BY RANGE (expiry_date);
+
+CREATE INDEX idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
+
+-- Partitions for the refresh tokens still valid, which are the only rows copied over
+DO
+$$
+    DECLARE
+        day DATE;
+    BEGIN
+        FOR day IN SELECT generate_series((now() AT TIME ZONE 'UTC')::DATE,
+                                          (SELECT (coalesce(max(expiry_date), now()) AT TIME ZONE 'UTC')::DATE
+                                           FROM refresh_tokens_unpartitioned),
+                                          INTERVAL '1 day')::DATE
+            LOOP
+                EXECUTE format('CREATE TABLE refresh_tokens_p%s PARTITION OF refresh_tokens FOR VALUES FROM (%L) TO (%L)',
+                               to_char(day, 'YYYYMMDD'), day::TIMESTAMP AT TIME ZONE 'UTC',
+                               (day + 1)::TIMESTAMP AT TIME ZONE 'UTC');
+            END LOOP;
+    END
+$$;
+
+INSERT INTO refresh_tokens (id, token, expiry_date, user_id)
+SELECT id, token, expiry_date, user_id
+FROM refresh_tokens_unpartitioned
+WHERE expiry_date >= now();
+
+DROP TABLE refresh_tokens_unpartitioned;
+
+COMMIT;
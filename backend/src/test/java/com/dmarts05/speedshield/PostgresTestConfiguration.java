@@ -0,0 +1,27 @@
+package com.dmarts05.speedshield;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Test configuration connecting the application to a throwaway Postgres container, matching the image in compose.yaml.
+ * Tests importing it should be annotated with {@code @Testcontainers(disabledWithoutDocker = true)},
+ * so that they are skipped where Docker is not available.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgresTestConfiguration {
+
+    /**
+     * Provides the Postgres container, started with the application context and shared by the tests reusing it.
+     *
+     * @return The PostgreSQLContainer instance.
+     */
+    @Bean
+    @ServiceConnection
+    public PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:16.3-alpine"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.dmarts05.speedshield.benchmark;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.config.TokenRevocationProperties;
+import com.dmarts05.speedshield.model.RevokedTokenEntity;
+import com.dmarts05.speedshield.model.Role;
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.service.JwtKeyRing;
+import com.dmarts05.speedshield.repository.RevokedTokenRepository;
+import com.dmarts05.speedshield.service.JwtService;
+import com.dmarts05.speedshield.service.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Shared fixtures for the JMH benchmarks.
+ */
+final class BenchmarkFixtures {
+    private BenchmarkFixtures() {
+    }
+
+    static JwtProperties jwtProperties() {
+        return jwtProperties(true);
+    }
+
+    static JwtProperties jwtProperties(boolean fastPathVerification) {
+        return new JwtProperties(
+                "906424b7eee97ae4d23f4be0ed18885c439918ad0f509958902945301cf4d1e7",
+                "https://speedshield.dmarts05.com",
+                "https://speedshield.dmarts05.com",
+                Duration.ofMinutes(15),
+                Duration.ofDays(30),
+                null,
+                Map.of(),
+                false,
+                fastPathVerification);
+    }
+
+    static JwtService jwtService(JwtProperties jwtProperties) {
+        return new JwtService(jwtProperties, new JwtKeyRing(jwtProperties), new SimpleMeterRegistry());
+    }
+
+    /**
+     * Creates a token revocation service whose denylist is loaded with the given number of revoked tokens.
+     */
+    static TokenRevocationService tokenRevocationService(int revokedTokens) {
+        Instant expiryDate = Instant.now().plus(Duration.ofMinutes(15));
+        List<RevokedTokenEntity> revoked = IntStream.range(0, revokedTokens)
+                .mapToObj(i -> new RevokedTokenEntity(UUID.randomUUID().toString(), expiryDate, Instant.now()))
+                .toList();
+        RevokedTokenRepository repository = (RevokedTokenRepository) Proxy.newProxyInstance(
+                RevokedTokenRepository.class.getClassLoader(),
+                new Class<?>[]{RevokedTokenRepository.class},
+                (proxy, method, args) -> method.getName().equals("findAllByExpiryDateAfter") ? revoked : null);
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(
+                repository,
+                new TokenRevocationProperties(100_000, 0.001, Duration.ofMinutes(1)),
+                new SimpleMeterRegistry());
+        tokenRevocationService.afterSingletonsInstantiated();
+        return tokenRevocationService;
+    }
+
+    static UserEntity userEntity() {
+        return UserEntity.builder()
+                .id(1L)
+                .name("Benchmark User")
+                .username("benchmark@example.com")
+                .password("{noop}password")
+                .role(Role.USER)
+                .build();
+    }
+}
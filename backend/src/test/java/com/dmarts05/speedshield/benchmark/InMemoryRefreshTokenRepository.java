@@ -0,0 +1,154 @@
+package com.dmarts05.speedshield.benchmark;
+
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.repository.ClaimedRefreshToken;
+import com.dmarts05.speedshield.repository.RefreshTokenRepository;
+import com.dmarts05.speedshield.repository.StoredRefreshToken;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link RefreshTokenRepository} backed by a concurrent map, used to benchmark services without a database.
+ */
+class InMemoryRefreshTokenRepository implements RefreshTokenRepository {
+    private final Map<Long, RefreshTokenEntity> entities = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public Optional<RefreshTokenEntity> findByToken(String token) {
+        return entities.values().stream().filter(entity -> entity.getToken().equals(token)).findFirst();
+    }
+
+    @Override
+    public int deleteExpiredChunk(Instant limitDate, int chunkSize) {
+        List<Long> expiredIds = entities.values().stream()
+                .filter(entity -> entity.getExpiryDate().isBefore(limitDate))
+                .limit(chunkSize)
+                .map(RefreshTokenEntity::getId)
+                .toList();
+        expiredIds.forEach(entities::remove);
+        return expiredIds.size();
+    }
+
+    @Override
+    public Optional<ClaimedRefreshToken> claimByToken(String token) {
+        return findByToken(token)
+                .filter(entity -> entities.remove(entity.getId(), entity))
+                .map(entity -> new ClaimedRefreshToken() {
+                    @Override
+                    public Long getUserId() {
+                        return entity.getUserEntity().getId();
+                    }
+
+                    @Override
+                    public Instant getExpiryDate() {
+                        return entity.getExpiryDate();
+                    }
+                });
+    }
+
+    @Override
+    public List<StoredRefreshToken> findAllUnexpired(Instant now) {
+        return entities.values().stream()
+                .filter(entity -> entity.getExpiryDate().isAfter(now))
+                .map(entity -> (StoredRefreshToken) new StoredRefreshToken() {
+                    @Override
+                    public String getToken() {
+                        return entity.getToken();
+                    }
+
+                    @Override
+                    public Long getUserId() {
+                        return entity.getUserEntity().getId();
+                    }
+
+                    @Override
+                    public Instant getExpiryDate() {
+                        return entity.getExpiryDate();
+                    }
+                })
+                .toList();
+    }
+
+    @Override
+    public int deleteAllByTokens(Collection<String> tokens) {
+        List<Long> ids = entities.values().stream()
+                .filter(entity -> tokens.contains(entity.getToken()))
+                .map(RefreshTokenEntity::getId)
+                .toList();
+        ids.forEach(entities::remove);
+        return ids.size();
+    }
+
+    @Override
+    public <S extends RefreshTokenEntity> S save(S entity) {
+        if (entity.getId() == null) {
+            entity.setId(sequence.incrementAndGet());
+        }
+        entities.put(entity.getId(), entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends RefreshTokenEntity> List<S> saveAll(Iterable<S> entities) {
+        return StreamSupport.stream(entities.spliterator(), false).map(this::save).toList();
+    }
+
+    @Override
+    public Optional<RefreshTokenEntity> findById(Long id) {
+        return Optional.ofNullable(entities.get(id));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return entities.containsKey(id);
+    }
+
+    @Override
+    public List<RefreshTokenEntity> findAll() {
+        return new ArrayList<>(entities.values());
+    }
+
+    @Override
+    public List<RefreshTokenEntity> findAllById(Iterable<Long> ids) {
+        return StreamSupport.stream(ids.spliterator(), false).map(entities::get).filter(entity -> entity != null).toList();
+    }
+
+    @Override
+    public long count() {
+        return entities.size();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        entities.remove(id);
+    }
+
+    @Override
+    public void delete(RefreshTokenEntity entity) {
+        entities.remove(entity.getId());
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+        ids.forEach(entities::remove);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends RefreshTokenEntity> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        entities.clear();
+    }
+}
@@ -0,0 +1,83 @@
+package com.dmarts05.speedshield.benchmark;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.filter.JwtFilter;
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.service.JwtService;
+import com.dmarts05.speedshield.service.UserDetailsServiceImpl;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JwtFilter} authenticating a request, with user loading replaced by an in-memory stub.
+ * Run with the gc profiler of the benchmark profile to see the bytes allocated per request.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtFilterBenchmark {
+    private JwtFilter jwtFilter;
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletRequest anonymousProtectedRequest;
+    private MockHttpServletResponse response;
+    private FilterChain filterChain;
+
+    @Setup
+    public void setup() {
+        JwtProperties jwtProperties = BenchmarkFixtures.jwtProperties();
+        JwtService jwtService = BenchmarkFixtures.jwtService(jwtProperties);
+        UserEntity userEntity = BenchmarkFixtures.userEntity();
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(null, new SimpleMeterRegistry()) {
+            @Override
+            public UserDetails loadUserByUsername(String username) {
+                return userEntity;
+            }
+        };
+        jwtFilter = new JwtFilter(jwtService, userDetailsService, jwtProperties, BenchmarkFixtures.tokenRevocationService(10_000));
+
+        authenticatedRequest = new MockHttpServletRequest("GET", "/api/users/me");
+        authenticatedRequest.addHeader("Authorization", "Bearer " + jwtService.generateToken(userEntity));
+        anonymousRequest = new MockHttpServletRequest("POST", "/api/auth/login");
+        anonymousProtectedRequest = new MockHttpServletRequest("GET", "/api/users/me");
+        response = new MockHttpServletResponse();
+        filterChain = (request, response) -> SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void authenticatedRequest() throws ServletException, IOException {
+        authenticatedRequest.removeAttribute(jwtFilterAlreadyFilteredAttribute());
+        jwtFilter.doFilter(authenticatedRequest, response, filterChain);
+    }
+
+    @Benchmark
+    public void anonymousRequest() throws ServletException, IOException {
+        anonymousRequest.removeAttribute(jwtFilterAlreadyFilteredAttribute());
+        jwtFilter.doFilter(anonymousRequest, response, filterChain);
+    }
+
+    /**
+     * Request without a token to a path that requires authentication, which the filter has to inspect.
+     */
+    @Benchmark
+    public void anonymousProtectedRequest() throws ServletException, IOException {
+        anonymousProtectedRequest.removeAttribute(jwtFilterAlreadyFilteredAttribute());
+        jwtFilter.doFilter(anonymousProtectedRequest, response, filterChain);
+    }
+
+    private String jwtFilterAlreadyFilteredAttribute() {
+        return JwtFilter.class.getName() + ".FILTERED";
+    }
+}
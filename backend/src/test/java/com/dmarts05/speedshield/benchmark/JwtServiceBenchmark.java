@@ -0,0 +1,45 @@
+package com.dmarts05.speedshield.benchmark;
+
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.service.JwtService;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JWT signing, parsing and validation in {@link JwtService}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+    private JwtService jwtService;
+    private UserEntity userEntity;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = BenchmarkFixtures.jwtService(BenchmarkFixtures.jwtProperties());
+        userEntity = BenchmarkFixtures.userEntity();
+        token = jwtService.generateToken(userEntity);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userEntity);
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, userEntity);
+    }
+}
@@ -0,0 +1,66 @@
+package com.dmarts05.speedshield.benchmark;
+
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.service.JwtService;
+import com.dmarts05.speedshield.service.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the verifications per second of the filter's previous triple-parse path
+ * against the single-parse {@link VerifiedToken} pipeline, verified by jjwt and by the built-in fast path.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+    private JwtService jwtService;
+    private JwtService jjwtOnlyJwtService;
+    private UserEntity userEntity;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = BenchmarkFixtures.jwtService(BenchmarkFixtures.jwtProperties(true));
+        jjwtOnlyJwtService = BenchmarkFixtures.jwtService(BenchmarkFixtures.jwtProperties(false));
+        userEntity = BenchmarkFixtures.userEntity();
+        token = jwtService.generateToken(userEntity);
+    }
+
+    /**
+     * Previous filter path: extract the username, then verify and extract the username again.
+     */
+    @Benchmark
+    public boolean tripleParse() {
+        String username = jjwtOnlyJwtService.extractUsername(token);
+        Claims claims = jjwtOnlyJwtService.extractAllClaims(token);
+        return username.equals(userEntity.getUsername())
+                && claims != null
+                && jjwtOnlyJwtService.extractUsername(token).equals(userEntity.getUsername());
+    }
+
+    /**
+     * Single-parse filter path with every token verified by jjwt.
+     */
+    @Benchmark
+    public boolean jjwtVerifiedToken() {
+        return jjwtOnlyJwtService.verifyToken(token)
+                .map(verifiedToken -> jjwtOnlyJwtService.isTokenValid(verifiedToken, userEntity))
+                .orElse(false);
+    }
+
+    /**
+     * Current filter path: verify once through the fast path, then reuse the verified claims.
+     */
+    @Benchmark
+    public boolean verifiedToken() {
+        return jwtService.verifyToken(token)
+                .map(verifiedToken -> jwtService.isTokenValid(verifiedToken, userEntity))
+                .orElse(false);
+    }
+}
@@ -0,0 +1,86 @@
+package com.dmarts05.speedshield.benchmark;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.config.RefreshTokenStoreProperties;
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.service.InMemoryRefreshTokenStore;
+import com.dmarts05.speedshield.service.JpaRefreshTokenStore;
+import com.dmarts05.speedshield.service.JwtService;
+import com.dmarts05.speedshield.service.RefreshTokenService;
+import com.dmarts05.speedshield.service.RefreshTokenStore;
+import com.dmarts05.speedshield.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link RefreshTokenService#generateRefreshToken} and {@link RefreshTokenService#rotateRefreshToken}
+ * with the JPA store over an in-memory repository, isolating the service cost from the database round-trip,
+ * and with the in-memory store.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RefreshTokenServiceBenchmark {
+    @Param({"JPA", "MEMORY"})
+    private RefreshTokenStoreProperties.Type storeType;
+
+    private JwtProperties jwtProperties;
+    private JwtService jwtService;
+    private UserService userService;
+    private RefreshTokenService refreshTokenService;
+    private UserEntity userEntity;
+    private String token;
+    private String refreshToken;
+
+    @Setup
+    public void setup() {
+        jwtProperties = BenchmarkFixtures.jwtProperties();
+        jwtService = BenchmarkFixtures.jwtService(jwtProperties);
+        userEntity = BenchmarkFixtures.userEntity();
+        userService = new UserService(null, new SimpleMeterRegistry()) {
+            @Override
+            public UserEntity findByUsername(String username) {
+                return userEntity;
+            }
+        };
+        token = jwtService.generateToken(userEntity);
+    }
+
+    /**
+     * Starts every iteration from an empty store, since each invocation leaves a refresh token behind.
+     */
+    @Setup(Level.Iteration)
+    public void createStore() {
+        InMemoryRefreshTokenRepository refreshTokenRepository = new InMemoryRefreshTokenRepository();
+        RefreshTokenStore refreshTokenStore = switch (storeType) {
+            case JPA -> new JpaRefreshTokenStore(refreshTokenRepository, Optional.empty(), new SimpleMeterRegistry());
+            case MEMORY -> new InMemoryRefreshTokenStore(refreshTokenRepository, null,
+                    new RefreshTokenStoreProperties(RefreshTokenStoreProperties.Type.MEMORY, 64, Duration.ofMinutes(1), false, Duration.ofSeconds(1), 5, 100000),
+                    jwtProperties, new SimpleMeterRegistry());
+        };
+        refreshTokenService = new RefreshTokenService(refreshTokenStore, jwtService, jwtProperties, userService, new SimpleMeterRegistry());
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareRefreshToken() {
+        refreshToken = refreshTokenService.generateRefreshToken(userEntity);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return refreshTokenService.generateRefreshToken(userEntity);
+    }
+
+    @Benchmark
+    public RefreshTokenEntity rotateRefreshToken() {
+        return refreshTokenService.rotateRefreshToken(token, refreshToken);
+    }
+}
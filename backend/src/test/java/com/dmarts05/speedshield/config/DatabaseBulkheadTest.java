@@ -0,0 +1,61 @@
+package com.dmarts05.speedshield.config;
+
+import com.dmarts05.speedshield.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DatabaseBulkheadTest {
+
+    @Test
+    public void shouldRejectWhenSaturatedAndRecoverAfterRelease() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DatabaseBulkhead databaseBulkhead = new DatabaseBulkhead(1, Duration.ofMillis(10));
+        databaseBulkhead.bindTo(meterRegistry);
+
+        databaseBulkhead.acquire();
+        assertThrows(DatabaseBusyException.class, databaseBulkhead::acquire);
+        assertEquals(1, meterRegistry.get("db.bulkhead.rejected").counter().count());
+        assertEquals(1, meterRegistry.get("db.bulkhead.active").gauge().value());
+
+        databaseBulkhead.release();
+        assertDoesNotThrow(databaseBulkhead::acquire);
+        assertEquals(3, meterRegistry.get("db.bulkhead.wait").timer().count());
+    }
+
+    @Test
+    public void shouldReleasePermitOnceWhenConnectionIsClosed() throws SQLException {
+        DatabaseBulkhead databaseBulkhead = new DatabaseBulkhead(1, Duration.ofMillis(10));
+        DataSource target = mock(DataSource.class);
+        Connection targetConnection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(targetConnection);
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, databaseBulkhead);
+
+        Connection connection = dataSource.getConnection();
+        assertEquals(0, databaseBulkhead.getAvailablePermits());
+        assertThrows(DatabaseBusyException.class, dataSource::getConnection);
+
+        connection.close();
+        connection.close();
+        assertEquals(1, databaseBulkhead.getAvailablePermits());
+        verify(targetConnection, times(1)).close();
+    }
+
+    @Test
+    public void shouldReleasePermitWhenConnectionCannotBeObtained() throws SQLException {
+        DatabaseBulkhead databaseBulkhead = new DatabaseBulkhead(1, Duration.ofMillis(10));
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLException("Connection is not available"));
+        BulkheadDataSource dataSource = new BulkheadDataSource(target, databaseBulkhead);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, databaseBulkhead.getAvailablePermits());
+    }
+}
@@ -0,0 +1,57 @@
+package com.dmarts05.speedshield.config;
+
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.repository.ClaimedRefreshToken;
+import com.dmarts05.speedshield.repository.StoredRefreshToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.data.projection.TargetAware;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeRuntimeHintsTest {
+    private RuntimeHints hints;
+
+    @BeforeEach
+    public void beforeEach() {
+        hints = new RuntimeHints();
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    public void shouldReferenceExistingJjwtClasses() {
+        // Catches jjwt upgrades that rename the classes loaded by name
+        NativeRuntimeHints.JJWT_IMPL_CLASSES.forEach(className -> assertDoesNotThrow(() -> Class.forName(className)));
+        NativeRuntimeHints.JJWT_JACKSON_CLASSES.forEach(className -> assertDoesNotThrow(() -> Class.forName(className)));
+    }
+
+    @Test
+    public void shouldRegisterJjwtImplementationAndServiceLoaderProviders() throws ClassNotFoundException {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Class.forName("io.jsonwebtoken.impl.DefaultJwtBuilder"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Class.forName("io.jsonwebtoken.jackson.io.JacksonDeserializer"))
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer").test(hints));
+    }
+
+    @Test
+    public void shouldRegisterConfigurationPropertiesEntitiesAndProjections() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(JwtProperties.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(UserEntity.class)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(AopProxyUtils.completeJdkProxyInterfaces(ClaimedRefreshToken.class, TargetAware.class)).test(hints));
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(AopProxyUtils.completeJdkProxyInterfaces(StoredRefreshToken.class, TargetAware.class)).test(hints));
+    }
+
+    @Test
+    public void shouldRegisterBulkheadConnectionProxy() {
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class).test(hints));
+    }
+}
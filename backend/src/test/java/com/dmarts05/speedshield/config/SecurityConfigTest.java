@@ -0,0 +1,24 @@
+package com.dmarts05.speedshield.config;
+
+import com.dmarts05.speedshield.controller.ControllerTest;
+import com.dmarts05.speedshield.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+
+public class SecurityConfigTest extends ControllerTest {
+    @Test
+    public void shouldRejectAnonymousMetricsScrape() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isUnauthorized());
+    }
+
+    @Test
+    public void shouldForbidMetricsScrapeToUsers() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus")
+                        .with(user("testuser@example.com").authorities(Role.USER.getAuthorities())))
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+    }
+}
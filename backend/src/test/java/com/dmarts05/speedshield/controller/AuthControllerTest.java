@@ -1,18 +1,34 @@
 package com.dmarts05.speedshield.controller;
 
 import com.dmarts05.speedshield.dto.*;
+import com.dmarts05.speedshield.exception.DatabaseBusyException;
+import com.dmarts05.speedshield.exception.InvalidJwtException;
 import com.dmarts05.speedshield.exception.InvalidLoginException;
+import com.dmarts05.speedshield.exception.JwtNotFoundException;
+import com.dmarts05.speedshield.exception.PasswordHashingUnavailableException;
+import com.dmarts05.speedshield.exception.RateLimitExceededException;
 import com.dmarts05.speedshield.exception.UsernameAlreadyTakenException;
 import com.dmarts05.speedshield.model.Role;
+import com.dmarts05.speedshield.service.AuthMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 public class AuthControllerTest extends ControllerTest {
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @Test
     public void shouldAuthenticateUserWithValidCredentials() throws Exception {
         JwtResponseDto responseDto = new JwtResponseDto("fake-jwt-token", "fake-refresh-token");
@@ -36,6 +52,91 @@ public class AuthControllerTest extends ControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content("{\"username\": \"testuser@example.com\", \"password\": \"wrongpassword\"}")
                 .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+        verify(credentialStuffingDetector).recordFailure(any(), eq("testuser@example.com"));
+    }
+
+    @Test
+    public void shouldCountExceptionsTurnedIntoErrorResponses() throws Exception {
+        when(authService.login(any(LoginRequestDto.class))).thenThrow(new InvalidLoginException());
+        double before = meterRegistry.counter(AuthMetrics.EXCEPTIONS_COUNTER, "exception", "InvalidLoginException").count();
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\": \"testuser@example.com\", \"password\": \"wrongpassword\"}")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+        assertEquals(before + 1, meterRegistry.counter(AuthMetrics.EXCEPTIONS_COUNTER, "exception", "InvalidLoginException").count());
+    }
+
+    @Test
+    public void shouldFailAuthenticationWhenPasswordHashingIsSaturated() throws Exception {
+        when(authService.login(any(LoginRequestDto.class))).thenThrow(new PasswordHashingUnavailableException());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\": \"testuser@example.com\", \"password\": \"password123\"}")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
+    }
+
+    @Test
+    public void shouldFailAuthenticationWhenDatabaseIsSaturated() throws Exception {
+        when(authService.login(any(LoginRequestDto.class))).thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction", new DatabaseBusyException()));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\": \"testuser@example.com\", \"password\": \"password123\"}")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isServiceUnavailable());
+
+        verify(credentialStuffingDetector, never()).recordFailure(any(), any());
+    }
+
+    @Test
+    public void shouldRateLimitClientForwardedByTrustedProxy() throws Exception {
+        when(authService.login(any(LoginRequestDto.class))).thenReturn(new JwtResponseDto("fake-jwt-token", "fake-refresh-token"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr("10.0.0.2");
+                    return request;
+                })
+                .header("X-Forwarded-For", "203.0.113.7, 10.0.0.1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\": \"testuser@example.com\", \"password\": \"password123\"}")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isCreated());
+
+        verify(loginRateLimiter).checkAttempt("203.0.113.7", "testuser@example.com");
+        verify(credentialStuffingDetector).checkAttempt("203.0.113.7", "testuser@example.com");
+    }
+
+    @Test
+    public void shouldIgnoreForwardedClientFromUntrustedAddress() throws Exception {
+        when(authService.login(any(LoginRequestDto.class))).thenReturn(new JwtResponseDto("fake-jwt-token", "fake-refresh-token"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr("198.51.100.9");
+                    return request;
+                })
+                .header("X-Forwarded-For", "203.0.113.7")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\": \"testuser@example.com\", \"password\": \"password123\"}")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isCreated());
+
+        verify(loginRateLimiter).checkAttempt("198.51.100.9", "testuser@example.com");
+    }
+
+    @Test
+    public void shouldRejectLoginWhenRateLimited() throws Exception {
+        doThrow(new RateLimitExceededException(Duration.ofMillis(2500))).when(loginRateLimiter).checkAttempt(any(), any());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"testuser@example.com\", \"password\": \"password123\"}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "3"));
+        verifyNoInteractions(authService);
     }
 
     @Test
@@ -93,4 +194,32 @@ public class AuthControllerTest extends ControllerTest {
                 .content("{\"name\": \"John Doe\", \"username\": \"invalidemail\", \"password\": \"password456\"}")
                 .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
+
+    @Test
+    public void shouldRevokeToken() throws Exception {
+        when(jwtService.extractTokenFromHeader(any())).thenReturn("fake-jwt-token");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/revoke")
+                .header("Authorization", "Bearer fake-jwt-token")).andExpect(MockMvcResultMatchers.status().isNoContent());
+
+        verify(authService).revokeToken("fake-jwt-token");
+    }
+
+    @Test
+    public void shouldFailRevocationWithoutToken() throws Exception {
+        when(jwtService.extractTokenFromHeader(any())).thenThrow(new JwtNotFoundException());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/revoke")).andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+        verify(authService, never()).revokeToken(any());
+    }
+
+    @Test
+    public void shouldFailRevocationWithInvalidToken() throws Exception {
+        when(jwtService.extractTokenFromHeader(any())).thenReturn("fake-jwt-token");
+        doThrow(new InvalidJwtException()).when(authService).revokeToken("fake-jwt-token");
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/auth/revoke")
+                .header("Authorization", "Bearer fake-jwt-token")).andExpect(MockMvcResultMatchers.status().isUnauthorized());
+    }
 }
@@ -1,17 +1,30 @@
 package com.dmarts05.speedshield.controller;
 
+import com.dmarts05.speedshield.config.SecurityConfig;
 import com.dmarts05.speedshield.service.AuthService;
+import com.dmarts05.speedshield.service.ClientIpResolver;
+import com.dmarts05.speedshield.service.CredentialStuffingDetector;
+import com.dmarts05.speedshield.service.IntrospectionRateLimiter;
 import com.dmarts05.speedshield.service.JwtService;
+import com.dmarts05.speedshield.service.LoginRateLimiter;
+import com.dmarts05.speedshield.service.TokenIntrospectionService;
+import com.dmarts05.speedshield.service.TokenRevocationService;
 import com.dmarts05.speedshield.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+
 @WebMvcTest
+@Import({SecurityConfig.class, ClientIpResolver.class, SimpleMeterRegistry.class})
 public abstract class ControllerTest {
     @MockBean
     UserDetailsServiceImpl userDetailsService;
@@ -19,14 +32,28 @@ public abstract class ControllerTest {
     JwtService jwtService;
     @MockBean
     AuthService authService;
+    @MockBean
+    LoginRateLimiter loginRateLimiter;
+    @MockBean
+    CredentialStuffingDetector credentialStuffingDetector;
+    @MockBean
+    TokenRevocationService tokenRevocationService;
+    @MockBean
+    TokenIntrospectionService tokenIntrospectionService;
+    @MockBean
+    IntrospectionRateLimiter introspectionRateLimiter;
+    @MockBean
+    PasswordEncoder passwordEncoder;
 
     @Autowired
     WebApplicationContext webApplicationContext;
 
-    MockMvc mockMvc;
+    protected MockMvc mockMvc;
 
     @BeforeEach
     public void setup() {
-        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext).build();
+        this.mockMvc = MockMvcBuilders.webAppContextSetup(this.webApplicationContext)
+                .apply(springSecurity())
+                .build();
     }
 }
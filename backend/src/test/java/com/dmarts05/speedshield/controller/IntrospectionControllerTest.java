@@ -0,0 +1,104 @@
+package com.dmarts05.speedshield.controller;
+
+import com.dmarts05.speedshield.dto.TokenIntrospectionDto;
+import com.dmarts05.speedshield.exception.RateLimitExceededException;
+import com.dmarts05.speedshield.model.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+
+public class IntrospectionControllerTest extends ControllerTest {
+    @Test
+    public void shouldIntrospectBatchOfTokens() throws Exception {
+        List<TokenIntrospectionDto> results = List.of(
+                TokenIntrospectionDto.builder().active(true).sub("testuser@example.com").exp(1_900_000_000L).build(),
+                TokenIntrospectionDto.builder().active(false).build());
+        when(tokenIntrospectionService.introspect(List.of("token1", "token2"))).thenReturn(results);
+        when(tokenIntrospectionService.cacheLifetime(eq(results), any())).thenReturn(Duration.ofSeconds(42));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/introspect")
+                        .with(gateway())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\": [\"token1\", \"token2\"]}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "max-age=42, private"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].active").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[0].sub").value("testuser@example.com"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].active").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.results[1].sub").doesNotExist());
+    }
+
+    @Test
+    public void shouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/introspect")
+                .with(gateway())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokens\": []}")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        verify(tokenIntrospectionService, never()).introspect(anyList());
+    }
+
+    @Test
+    public void shouldRejectOversizedBatch() throws Exception {
+        String tokens = String.join(",", Collections.nCopies(101, "\"token\""));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/introspect")
+                .with(gateway())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokens\": [" + tokens + "]}")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void shouldRejectUnauthenticatedIntrospection() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/introspect")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokens\": [\"token1\"]}")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isUnauthorized());
+
+        verify(tokenIntrospectionService, never()).introspect(anyList());
+    }
+
+    @Test
+    public void shouldForbidIntrospectionToUsers() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/introspect")
+                .with(user("testuser@example.com").authorities(Role.USER.getAuthorities()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"tokens\": [\"token1\"]}")
+                .accept(MediaType.APPLICATION_JSON)).andExpect(MockMvcResultMatchers.status().isForbidden());
+
+        verify(tokenIntrospectionService, never()).introspect(anyList());
+    }
+
+    @Test
+    public void shouldRejectIntrospectionWhenRateLimited() throws Exception {
+        doThrow(new RateLimitExceededException(Duration.ofMillis(2500))).when(introspectionRateLimiter).checkAttempt("gateway", 2);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/introspect")
+                        .with(gateway())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tokens\": [\"token1\", \"token2\"]}")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "3"));
+
+        verify(tokenIntrospectionService, never()).introspect(anyList());
+    }
+
+    private static RequestPostProcessor gateway() {
+        return user("gateway").authorities(Role.GATEWAY.getAuthorities());
+    }
+}
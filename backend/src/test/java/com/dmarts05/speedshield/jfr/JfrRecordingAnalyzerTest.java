@@ -0,0 +1,50 @@
+package com.dmarts05.speedshield.jfr;
+
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecordingAnalyzerTest {
+
+    @Test
+    public void shouldSummarizeStageLatencies(@TempDir Path tempDir) throws IOException {
+        Path recordingPath = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(JwtVerifyEvent.NAME).withThreshold(Duration.ZERO);
+            recording.enable(RepositoryCallEvent.NAME).withThreshold(Duration.ZERO);
+            recording.start();
+
+            for (int i = 0; i < 100; i++) {
+                JwtVerifyEvent event = new JwtVerifyEvent();
+                event.begin();
+                event.tokenLength = 200;
+                event.outcome = "success";
+                event.commit();
+            }
+            RepositoryCallEvent repositoryCallEvent = new RepositoryCallEvent();
+            repositoryCallEvent.begin();
+            repositoryCallEvent.repository = "UserRepository";
+            repositoryCallEvent.method = "findByUsername";
+            repositoryCallEvent.outcome = "success";
+            repositoryCallEvent.commit();
+
+            recording.stop();
+            recording.dump(recordingPath);
+        }
+
+        JfrRecordingAnalyzer.Summary summary = JfrRecordingAnalyzer.analyze(recordingPath);
+
+        JfrRecordingAnalyzer.StageSummary jwtVerify = summary.stages().get("JWT Verify");
+        assertEquals(100, jwtVerify.count());
+        assertTrue(jwtVerify.p50().compareTo(jwtVerify.p99()) <= 0);
+        assertTrue(jwtVerify.p99().compareTo(jwtVerify.max()) <= 0);
+        assertEquals(1, summary.stages().get("RepositoryCall UserRepository.findByUsername").count());
+        assertTrue(JfrRecordingAnalyzer.format(summary).contains("JWT Verify"));
+    }
+}
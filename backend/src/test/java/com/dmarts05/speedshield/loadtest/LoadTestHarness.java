@@ -0,0 +1,124 @@
+package com.dmarts05.speedshield.loadtest;
+
+import com.dmarts05.speedshield.SpeedshieldApplication;
+import com.dmarts05.speedshield.loadtest.LoadTestOptions.Operation;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * End-to-end load test: starts the whole application in this JVM, registers a pool of users, then drives
+ * a weighted mix of register, login, refresh and authenticated calls from virtual users for a warmup
+ * and a measured phase. Writes throughput, latency percentiles per operation and database statement counts
+ * as a JSON report, and fails when a baseline report is given and a regression beyond the tolerance is found.
+ * Runs offline against the local Postgres started from compose.yaml, or the one given by spring.datasource.*.
+ * <p>
+ * Usage: {@code mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--concurrency=64 --duration=PT60S"}
+ */
+public final class LoadTestHarness {
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<String> regressions;
+        try (ConfigurableApplicationContext context = startApplication(options)) {
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            URI baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+            LoadTestScenario scenario = new LoadTestScenario(baseUri, options);
+            scenario.createUsers();
+
+            run(scenario, options, options.warmup());
+            for (Operation operation : Operation.values()) {
+                scenario.takeLatencies(operation);
+                scenario.takeErrors(operation);
+            }
+            statistics.clear();
+
+            Instant startedAt = Instant.now();
+            long start = System.nanoTime();
+            run(scenario, options, options.duration());
+            double durationSeconds = (System.nanoTime() - start) / 1e9;
+
+            LoadTestReport report = createReport(scenario, statistics, options, startedAt, durationSeconds);
+            report.write(options.report());
+            print(report);
+            System.out.println("Report written to " + options.report().toAbsolutePath());
+
+            regressions = options.baseline() != null
+                    ? report.regressionsAgainst(LoadTestReport.read(options.baseline()), options.tolerance())
+                    : List.of();
+        }
+
+        if (!regressions.isEmpty()) {
+            regressions.forEach(regression -> System.out.println("REGRESSION: " + regression));
+            System.exit(1);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestOptions options) {
+        String[] args = options.applicationProperties().entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(SpeedshieldApplication.class).run(args);
+    }
+
+    private static void run(LoadTestScenario scenario, LoadTestOptions options, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        int totalWeight = options.mix().values().stream().mapToInt(Integer::intValue).sum();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.concurrency(); i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        scenario.execute(pick(options.mix(), totalWeight));
+                    }
+                });
+            }
+        }
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, int totalWeight) {
+        int value = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            value -= entry.getValue();
+            if (value < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Operation mix is empty");
+    }
+
+    private static LoadTestReport createReport(LoadTestScenario scenario, Statistics statistics, LoadTestOptions options, Instant startedAt, double durationSeconds) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        Map<String, LoadTestReport.EndpointReport> endpoints = new LinkedHashMap<>();
+        long requests = 0;
+        for (Operation operation : Operation.values()) {
+            LoadTestReport.EndpointReport endpoint = LoadTestReport.EndpointReport.of(scenario.takeLatencies(operation), scenario.takeErrors(operation), durationSeconds);
+            mix.put(operation.key(), options.mix().getOrDefault(operation, 0));
+            endpoints.put(operation.key(), endpoint);
+            requests += endpoint.requests();
+        }
+        return new LoadTestReport(startedAt.toString(), durationSeconds, options.concurrency(), mix, endpoints, LoadTestReport.DatabaseReport.of(statistics, requests));
+    }
+
+    private static void print(LoadTestReport report) {
+        System.out.printf("%-14s %10s %8s %10s %10s %10s %10s %10s%n", "operation", "requests", "errors", "req/s", "p50 us", "p99 us", "p99.9 us", "max us");
+        report.endpoints().forEach((operation, endpoint) -> System.out.printf("%-14s %10d %8d %10.1f %10d %10d %10d %10d%n",
+                operation, endpoint.requests(), endpoint.errors(), endpoint.throughput(),
+                endpoint.latencyMicros().p50(), endpoint.latencyMicros().p99(), endpoint.latencyMicros().p999(), endpoint.latencyMicros().max()));
+        System.out.printf("database: %d statements (%.2f per request), %d transactions%n",
+                report.database().preparedStatements(), report.database().statementsPerRequest(), report.database().transactions());
+    }
+}
@@ -0,0 +1,93 @@
+package com.dmarts05.speedshield.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Options of a load test run, parsed from "--name=value" arguments.
+ * Arguments the harness does not know are passed on to the application, e.g. "--spring.datasource.url=...".
+ *
+ * @param concurrency           Number of virtual users issuing requests back to back.
+ * @param duration              Duration of the measured phase.
+ * @param warmup                Duration of the warmup phase, whose results are discarded.
+ * @param users                 Number of users registered up front and shared by the login, refresh and authenticated calls.
+ * @param mix                   Relative weight of each operation.
+ * @param authenticatedPath     Path called with an access token by the authenticated operation.
+ * @param report                File the JSON report is written to.
+ * @param baseline              JSON report of a previous run to compare against, or null.
+ * @param tolerance             Relative throughput drop or p99 latency increase over the baseline counted as a regression.
+ * @param applicationProperties Properties the application is started with.
+ */
+record LoadTestOptions(int concurrency,
+                       Duration duration,
+                       Duration warmup,
+                       int users,
+                       Map<Operation, Integer> mix,
+                       String authenticatedPath,
+                       Path report,
+                       Path baseline,
+                       double tolerance,
+                       Map<String, String> applicationProperties) {
+
+    /**
+     * Operations driven against the application.
+     */
+    enum Operation {
+        REGISTER, LOGIN, REFRESH, AUTHENTICATED;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+
+        // Every request comes from the same address, and the load test is not meant to measure rejections
+        Map<String, String> applicationProperties = new LinkedHashMap<>();
+        applicationProperties.put("server.port", "0");
+        applicationProperties.put("spring.jpa.show-sql", "false");
+        applicationProperties.put("spring.jpa.properties.hibernate.generate_statistics", "true");
+        applicationProperties.put("logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener", "WARN");
+        applicationProperties.put("app.login-rate-limit.enabled", "false");
+        applicationProperties.put("app.credential-stuffing.enabled", "false");
+
+        LoadTestOptions loadTestOptions = new LoadTestOptions(
+                Integer.parseInt(take(options, "concurrency", "64")),
+                Duration.parse(take(options, "duration", "PT60S")),
+                Duration.parse(take(options, "warmup", "PT15S")),
+                Integer.parseInt(take(options, "users", "200")),
+                parseMix(take(options, "mix", "register:2,login:8,refresh:10,authenticated:80")),
+                take(options, "authenticated-path", "/actuator/metrics/jvm.threads.live"),
+                Path.of(take(options, "report", "target/loadtest-report.json")),
+                options.containsKey("baseline") ? Path.of(options.remove("baseline")) : null,
+                Double.parseDouble(take(options, "tolerance", "0.2")),
+                applicationProperties);
+        applicationProperties.putAll(options);
+        return loadTestOptions;
+    }
+
+    private static String take(Map<String, String> options, String name, String defaultValue) {
+        String value = options.remove(name);
+        return value != null ? value : defaultValue;
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,125 @@
+package com.dmarts05.speedshield.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.hibernate.stat.Statistics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Machine-readable result of a load test run, written as JSON.
+ *
+ * @param startedAt       Instant the measured phase started, in ISO-8601.
+ * @param durationSeconds Duration of the measured phase.
+ * @param concurrency     Number of virtual users.
+ * @param mix             Relative weight of each operation.
+ * @param endpoints       Results per operation.
+ * @param database        Hibernate statement counts over the measured phase.
+ */
+record LoadTestReport(String startedAt,
+                      double durationSeconds,
+                      int concurrency,
+                      Map<String, Integer> mix,
+                      Map<String, EndpointReport> endpoints,
+                      DatabaseReport database) {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /**
+     * Result of one operation.
+     *
+     * @param requests      Number of calls made.
+     * @param errors        Number of calls that did not succeed.
+     * @param throughput    Calls per second.
+     * @param latencyMicros Latency distribution of the calls in microseconds.
+     */
+    record EndpointReport(long requests, long errors, double throughput, LatencyReport latencyMicros) {
+        static EndpointReport of(Histogram latencies, long errors, double durationSeconds) {
+            LatencyReport latencyReport = new LatencyReport(
+                    latencies.getMean(),
+                    latencies.getValueAtPercentile(50),
+                    latencies.getValueAtPercentile(90),
+                    latencies.getValueAtPercentile(99),
+                    latencies.getValueAtPercentile(99.9),
+                    latencies.getMaxValue());
+            return new EndpointReport(latencies.getTotalCount(), errors, latencies.getTotalCount() / durationSeconds, latencyReport);
+        }
+    }
+
+    /**
+     * Latency percentiles, corrected neither for coordinated omission nor for client overhead:
+     * virtual users wait for each response before sending their next request.
+     */
+    record LatencyReport(double mean, long p50, long p90, long p99, long p999, long max) {
+    }
+
+    /**
+     * Statement counts collected by Hibernate statistics.
+     *
+     * @param preparedStatements   JDBC statements prepared.
+     * @param queries              JPQL and native queries executed.
+     * @param entityLoads          Entities loaded.
+     * @param entityInserts        Entities inserted.
+     * @param entityDeletes        Entities deleted.
+     * @param transactions         Transactions completed.
+     * @param statementsPerRequest JDBC statements prepared per call, over all operations.
+     */
+    record DatabaseReport(long preparedStatements,
+                          long queries,
+                          long entityLoads,
+                          long entityInserts,
+                          long entityDeletes,
+                          long transactions,
+                          double statementsPerRequest) {
+        static DatabaseReport of(Statistics statistics, long requests) {
+            return new DatabaseReport(
+                    statistics.getPrepareStatementCount(),
+                    statistics.getQueryExecutionCount(),
+                    statistics.getEntityLoadCount(),
+                    statistics.getEntityInsertCount(),
+                    statistics.getEntityDeleteCount(),
+                    statistics.getTransactionCount(),
+                    requests > 0 ? (double) statistics.getPrepareStatementCount() / requests : 0);
+        }
+    }
+
+    void write(Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        OBJECT_MAPPER.writeValue(path.toFile(), this);
+    }
+
+    static LoadTestReport read(Path path) throws IOException {
+        return OBJECT_MAPPER.readValue(path.toFile(), LoadTestReport.class);
+    }
+
+    /**
+     * Lists the operations whose throughput dropped or whose p99 latency grew by more than the tolerance.
+     *
+     * @param baseline  Report of a previous run.
+     * @param tolerance Relative change allowed, e.g. 0.2 for 20%.
+     * @return Description of each regression, empty if there is none.
+     */
+    List<String> regressionsAgainst(LoadTestReport baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        endpoints.forEach((operation, current) -> {
+            EndpointReport previous = baseline.endpoints().get(operation);
+            if (previous == null || previous.requests() == 0) {
+                return;
+            }
+            if (current.throughput() < previous.throughput() * (1 - tolerance)) {
+                regressions.add(String.format("%s throughput dropped from %.1f/s to %.1f/s", operation, previous.throughput(), current.throughput()));
+            }
+            if (current.latencyMicros().p99() > previous.latencyMicros().p99() * (1 + tolerance)) {
+                regressions.add(String.format("%s p99 latency grew from %dus to %dus", operation, previous.latencyMicros().p99(), current.latencyMicros().p99()));
+            }
+        });
+        return regressions;
+    }
+}
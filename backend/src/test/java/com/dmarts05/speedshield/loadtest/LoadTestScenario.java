@@ -0,0 +1,220 @@
+package com.dmarts05.speedshield.loadtest;
+
+import com.dmarts05.speedshield.loadtest.LoadTestOptions.Operation;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the register, login, refresh and authenticated operations against a running application over HTTP,
+ * recording the latency of every call in microseconds and counting the calls that did not succeed.
+ * Login and refresh take a session out of the shared pool while they run, so that concurrent calls never
+ * rotate the same refresh token.
+ */
+final class LoadTestScenario {
+    private static final String PASSWORD = "load-test-password";
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI baseUri;
+    private final String authenticatedPath;
+    private final String runId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong registeredUsers = new AtomicLong();
+    private final AtomicReferenceArray<Session> sessions;
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    private record Session(String username, String token, String refreshToken) {
+    }
+
+    private record Slot(int index, Session session) {
+    }
+
+    LoadTestScenario(URI baseUri, LoadTestOptions options) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.baseUri = baseUri;
+        this.authenticatedPath = options.authenticatedPath();
+        this.sessions = new AtomicReferenceArray<>(options.users());
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Registers and logs in the users shared by the login, refresh and authenticated operations.
+     */
+    void createUsers() throws InterruptedException {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < sessions.length(); i++) {
+                int index = i;
+                executor.submit(() -> {
+                    String username = nextUsername();
+                    if (send("/api/auth/register", credentials(username)).statusCode() != 201) {
+                        throw new IllegalStateException("Could not register load test user " + username);
+                    }
+                    sessions.set(index, login(username));
+                    return null;
+                });
+            }
+        }
+        for (int i = 0; i < sessions.length(); i++) {
+            if (sessions.get(i) == null) {
+                throw new IllegalStateException("Could not create the load test users, is the application reachable at " + baseUri + "?");
+            }
+        }
+    }
+
+    /**
+     * Runs the operation once, recording its latency and whether it failed.
+     *
+     * @param operation Operation to run.
+     */
+    void execute(Operation operation) {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = switch (operation) {
+                case REGISTER -> register();
+                case LOGIN -> relogin();
+                case REFRESH -> refresh();
+                case AUTHENTICATED -> authenticated();
+            };
+        } catch (IOException | RuntimeException e) {
+            success = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        latencies.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        if (!success) {
+            errors.get(operation).increment();
+        }
+    }
+
+    /**
+     * Retrieves the latencies recorded since the previous call, and starts recording anew.
+     *
+     * @param operation Operation whose latencies to retrieve.
+     * @return Histogram of the latencies in microseconds.
+     */
+    Histogram takeLatencies(Operation operation) {
+        return latencies.get(operation).getIntervalHistogram();
+    }
+
+    /**
+     * Retrieves the number of failed calls since the previous call, and starts counting anew.
+     *
+     * @param operation Operation whose failures to retrieve.
+     * @return Number of failed calls.
+     */
+    long takeErrors(Operation operation) {
+        return errors.get(operation).sumThenReset();
+    }
+
+    private boolean register() throws IOException, InterruptedException {
+        return send("/api/auth/register", credentials(nextUsername())).statusCode() == 201;
+    }
+
+    private boolean relogin() throws IOException, InterruptedException {
+        Slot slot = takeSession();
+        Session renewed = null;
+        try {
+            renewed = login(slot.session().username());
+        } finally {
+            sessions.set(slot.index(), renewed != null ? renewed : slot.session());
+        }
+        return renewed != null;
+    }
+
+    private boolean refresh() throws IOException, InterruptedException {
+        Slot slot = takeSession();
+        Session renewed = null;
+        try {
+            Map<String, String> body = Map.of("token", slot.session().token(), "refreshToken", slot.session().refreshToken());
+            renewed = toSession(slot.session().username(), send("/api/auth/refreshToken", body));
+        } finally {
+            sessions.set(slot.index(), renewed != null ? renewed : slot.session());
+        }
+        return renewed != null;
+    }
+
+    private boolean authenticated() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(authenticatedPath))
+                .header("Authorization", "Bearer " + anySession().token())
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+    }
+
+    private Slot takeSession() {
+        int start = ThreadLocalRandom.current().nextInt(sessions.length());
+        for (int i = 0; i < sessions.length(); i++) {
+            int index = (start + i) % sessions.length();
+            Session session = sessions.getAndSet(index, null);
+            if (session != null) {
+                return new Slot(index, session);
+            }
+        }
+        throw new IllegalStateException("No idle session, run with more users than the concurrency");
+    }
+
+    private Session anySession() {
+        int start = ThreadLocalRandom.current().nextInt(sessions.length());
+        for (int i = 0; i < sessions.length(); i++) {
+            Session session = sessions.get((start + i) % sessions.length());
+            if (session != null) {
+                return session;
+            }
+        }
+        throw new IllegalStateException("No idle session, run with more users than the concurrency");
+    }
+
+    private Session login(String username) throws IOException, InterruptedException {
+        return toSession(username, send("/api/auth/login", credentials(username)));
+    }
+
+    private Session toSession(String username, HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 201) {
+            return null;
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        return new Session(username, body.get("token").asText(), body.get("refreshToken").asText());
+    }
+
+    private String nextUsername() {
+        return "load-test-" + runId + "-" + registeredUsers.incrementAndGet() + "@example.com";
+    }
+
+    private Map<String, String> credentials(String username) {
+        return Map.of("name", "Load Test", "username", username, "password", PASSWORD);
+    }
+
+    private HttpResponse<String> send(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
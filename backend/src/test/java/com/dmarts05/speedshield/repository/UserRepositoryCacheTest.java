@@ -0,0 +1,96 @@
+package com.dmarts05.speedshield.repository;
+
+import com.dmarts05.speedshield.PostgresTestConfiguration;
+import com.dmarts05.speedshield.model.Role;
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the user second-level cache against a real database, counting the statements through Hibernate statistics.
+ */
+@SpringBootTest
+@Import(PostgresTestConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class UserRepositoryCacheTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    private Statistics statistics;
+    private String username;
+
+    @BeforeEach
+    public void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        username = "cached-" + UUID.randomUUID();
+        userRepository.save(UserEntity.builder()
+                .name("Cached User")
+                .username(username)
+                .password("hash")
+                .role(Role.USER)
+                .build());
+    }
+
+    @Test
+    public void shouldServeRepeatedLookupFromCacheWithoutStatements() {
+        userRepository.findByUsername(username).orElseThrow();
+        statistics.clear();
+
+        UserEntity userEntity = userRepository.findByUsername(username).orElseThrow();
+
+        assertEquals(username, userEntity.getUsername());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getConnectCount());
+        assertEquals(1, statistics.getNaturalIdCacheHitCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    public void shouldRefreshCachedUserWhenPasswordIsUpgraded() {
+        UserEntity userEntity = userRepository.findByUsername(username).orElseThrow();
+
+        userDetailsService.updatePassword(userEntity, "upgraded-hash");
+        statistics.clear();
+
+        assertEquals("upgraded-hash", userRepository.findByUsername(username).orElseThrow().getPassword());
+        assertEquals("upgraded-hash", userDetailsService.loadUserByUsername(username).getPassword());
+    }
+
+    @Test
+    public void shouldNotResolveUsernameOfDeletedUser() {
+        UserEntity userEntity = userRepository.findByUsername(username).orElseThrow();
+
+        userRepository.delete(userEntity);
+
+        assertTrue(userRepository.findByUsername(username).isEmpty());
+    }
+
+    @Test
+    public void shouldRegisterCacheHitAndMissMetrics() {
+        userRepository.findByUsername(username).orElseThrow();
+        userRepository.findByUsername(username).orElseThrow();
+
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests").tag("result", "hit").functionCounter().count() > 0);
+        assertNotNull(meterRegistry.get("hibernate.second.level.cache.requests").tag("result", "miss").functionCounter());
+        assertTrue(meterRegistry.get("hibernate.cache.natural.id.requests").tag("result", "hit").functionCounter().count() > 0);
+        assertNotNull(meterRegistry.get("hibernate.cache.natural.id.requests").tag("result", "miss").functionCounter());
+    }
+}
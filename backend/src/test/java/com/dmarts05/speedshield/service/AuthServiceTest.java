@@ -0,0 +1,161 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.dto.JwtResponseDto;
+import com.dmarts05.speedshield.dto.LoginRequestDto;
+import com.dmarts05.speedshield.dto.RefreshTokenRequestDto;
+import com.dmarts05.speedshield.exception.DatabaseBusyException;
+import com.dmarts05.speedshield.exception.InvalidLoginException;
+import com.dmarts05.speedshield.exception.RefreshTokenNotFoundException;
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.model.Role;
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.repository.ClaimedRefreshToken;
+import com.dmarts05.speedshield.repository.RefreshTokenRepository;
+import com.dmarts05.speedshield.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs logins through a real authentication manager and counts the repository calls, each of which is one statement.
+ * Token issuance runs its stages concurrently, so the repositories are called from other threads.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+    private static final String USERNAME = "testUser";
+    private static final String PASSWORD = "testPassword";
+
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private UserService userService;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    private SimpleMeterRegistry meterRegistry;
+    private JwtService jwtService;
+    private AuthService authService;
+    private UserEntity userEntity;
+
+    @BeforeEach
+    public void beforeEach() {
+        JwtProperties jwtProperties = new JwtProperties(
+                "906424b7eee97ae4d23f4be0ed18885c439918ad0f509958902945301cf4d1e7",
+                "https://speedshield.dmarts05.com",
+                "https://speedshield.dmarts05.com",
+                Duration.ofMinutes(15),
+                Duration.ofDays(30),
+                null,
+                Map.of(),
+                false,
+                true);
+        meterRegistry = new SimpleMeterRegistry();
+        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+        jwtService = new JwtService(jwtProperties, new JwtKeyRing(jwtProperties), meterRegistry);
+
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(passwordEncoder);
+        authenticationProvider.setUserDetailsService(new UserDetailsServiceImpl(userRepository, meterRegistry));
+        RefreshTokenService refreshTokenService = new RefreshTokenService(new JpaRefreshTokenStore(refreshTokenRepository, Optional.empty(), meterRegistry), jwtService, jwtProperties, userService, meterRegistry);
+        authService = new AuthService(new ProviderManager(authenticationProvider), passwordEncoder, jwtService, refreshTokenService, userService, tokenRevocationService, meterRegistry);
+
+        userEntity = UserEntity.builder()
+                .id(1L)
+                .username(USERNAME)
+                .password(passwordEncoder.encode(PASSWORD))
+                .role(Role.USER)
+                .build();
+        lenient().when(userRepository.findByUsername(USERNAME)).thenReturn(Optional.of(userEntity));
+    }
+
+    @Test
+    public void shouldLoginWithSingleUserQueryAndSingleInsert() {
+        JwtResponseDto jwtResponseDto = authService.login(new LoginRequestDto(USERNAME, PASSWORD));
+
+        assertEquals(USERNAME, jwtService.verifyToken(jwtResponseDto.getToken()).orElseThrow().getSubject());
+        assertNotNull(jwtResponseDto.getRefreshToken());
+        verify(userRepository, times(1)).findByUsername(USERNAME);
+        verify(refreshTokenRepository, times(1)).save(any(RefreshTokenEntity.class));
+        verifyNoMoreInteractions(userRepository, refreshTokenRepository);
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    public void shouldNotInsertRefreshTokenForInvalidPassword() {
+        assertThrows(InvalidLoginException.class, () -> authService.login(new LoginRequestDto(USERNAME, "wrongPassword")));
+
+        verify(userRepository, times(1)).findByUsername(USERNAME);
+        verifyNoInteractions(refreshTokenRepository, userService);
+    }
+
+    @Test
+    public void shouldPropagateSaturatedDatabaseInsteadOfFailingLogin() {
+        when(userRepository.findByUsername(USERNAME))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction", new DatabaseBusyException()));
+
+        assertThrows(DatabaseBusyException.class, () -> authService.login(new LoginRequestDto(USERNAME, PASSWORD)));
+
+        verifyNoInteractions(refreshTokenRepository, userService);
+    }
+
+    @Test
+    public void shouldRecordTokenIssuanceLatency() {
+        authService.login(new LoginRequestDto(USERNAME, PASSWORD));
+
+        assertEquals(1, meterRegistry.get(AuthMetrics.STAGE_TIMER).tag("stage", AuthMetrics.TOKEN_ISSUANCE).timer().count());
+    }
+
+    @Test
+    public void shouldRefreshTokenWithConcurrentSigningAndRotation() {
+        String token = jwtService.generateToken(userEntity);
+        when(userService.findByUsername(USERNAME)).thenReturn(userEntity);
+        when(refreshTokenRepository.claimByToken("refreshToken")).thenReturn(Optional.of(claimed(userEntity.getId(), Instant.now().plus(Duration.ofDays(1)))));
+
+        JwtResponseDto jwtResponseDto = authService.refreshToken(new RefreshTokenRequestDto(token, "refreshToken"));
+
+        assertEquals(USERNAME, jwtService.verifyToken(jwtResponseDto.getToken()).orElseThrow().getSubject());
+        assertNotEquals("refreshToken", jwtResponseDto.getRefreshToken());
+        verify(refreshTokenRepository, times(1)).save(any(RefreshTokenEntity.class));
+    }
+
+    @Test
+    public void shouldPropagateRotationFailureFromConcurrentStage() {
+        String token = jwtService.generateToken(userEntity);
+        when(userService.findByUsername(USERNAME)).thenReturn(userEntity);
+        when(refreshTokenRepository.claimByToken("refreshToken")).thenReturn(Optional.empty());
+
+        assertThrows(RefreshTokenNotFoundException.class, () -> authService.refreshToken(new RefreshTokenRequestDto(token, "refreshToken")));
+        verify(refreshTokenRepository, never()).save(any(RefreshTokenEntity.class));
+    }
+
+    private static ClaimedRefreshToken claimed(Long userId, Instant expiryDate) {
+        return new ClaimedRefreshToken() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Instant getExpiryDate() {
+                return expiryDate;
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.dmarts05.speedshield.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    public void shouldContainEveryAddedKey() {
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.01);
+
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.add("key" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(bloomFilter.mightContain("key" + i));
+        }
+    }
+
+    @Test
+    public void shouldKeepFalsePositivesNearConfiguredProbability() {
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.add("revoked" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (bloomFilter.mightContain("active" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2_000, "Too many false positives: " + falsePositives);
+    }
+
+    @Test
+    public void shouldSizeBitsForExpectedInsertions() {
+        BloomFilter bloomFilter = new BloomFilter(100_000, 0.001);
+
+        // About 1.44 * log2(1 / p) bits per key
+        assertTrue(bloomFilter.sizeInBytes() > 170_000);
+        assertTrue(bloomFilter.sizeInBytes() < 190_000);
+        assertFalse(bloomFilter.mightContain("key"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.ClientIpProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientIpResolverTest {
+    private final ClientIpResolver clientIpResolver = new ClientIpResolver(new ClientIpProperties(List.of("10.0.0.0/8", "::1/128")));
+
+    @Test
+    public void shouldResolveFirstUntrustedAddressFromTheRight() {
+        assertEquals("203.0.113.7", clientIpResolver.resolve(request("10.0.0.2", "198.51.100.1, 203.0.113.7, 10.0.0.1")));
+        assertEquals("203.0.113.7", clientIpResolver.resolve(request("0:0:0:0:0:0:0:1", "203.0.113.7")));
+    }
+
+    @Test
+    public void shouldIgnoreForwardedForFromUntrustedAddress() {
+        assertEquals("198.51.100.9", clientIpResolver.resolve(request("198.51.100.9", "203.0.113.7")));
+        assertEquals("10.0.0.2", clientIpResolver.resolve(request("10.0.0.2", null)));
+    }
+
+    @Test
+    public void shouldStopAtMalformedForwardedAddress() {
+        assertEquals("10.0.0.1", clientIpResolver.resolve(request("10.0.0.2", "203.0.113.7, attacker.example.com, 10.0.0.1")));
+        assertEquals("10.0.0.2", clientIpResolver.resolve(request("10.0.0.2", "999.1.1.1")));
+    }
+
+    @Test
+    public void shouldResolveLeftmostAddressWhenEveryHopIsTrusted() {
+        assertEquals("10.0.0.3", clientIpResolver.resolve(request("10.0.0.2", "10.0.0.3, 10.0.0.1")));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,42 @@
+package com.dmarts05.speedshield.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    public void shouldNeverUnderestimate() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+
+        for (int i = 0; i < 10_000; i++) {
+            sketch.add("key" + (i % 500));
+        }
+        for (int i = 0; i < 30; i++) {
+            sketch.add("heavyHitter");
+        }
+
+        assertTrue(sketch.estimate("heavyHitter") >= 30);
+        for (int i = 0; i < 500; i++) {
+            assertTrue(sketch.estimate("key" + i) >= 20);
+        }
+        assertEquals(64 * 4 * Integer.BYTES, sketch.sizeInBytes());
+    }
+
+    @Test
+    public void shouldHalveCountsOnDecay() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for (int i = 0; i < 8; i++) {
+            sketch.add("key");
+        }
+
+        sketch.decay();
+        assertEquals(4, sketch.estimate("key"));
+        sketch.decay();
+        sketch.decay();
+        sketch.decay();
+
+        assertEquals(0, sketch.estimate("key"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.CredentialStuffingProperties;
+import com.dmarts05.speedshield.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CredentialStuffingDetectorTest {
+
+    @Test
+    public void shouldFlagUsernameWithTooManyFailuresFromAnyClientIp() {
+        CredentialStuffingDetector detector = new CredentialStuffingDetector(properties(true), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 3; i++) {
+            detector.recordFailure("10.0.0." + i, "victim@example.com");
+        }
+
+        assertThrows(RateLimitExceededException.class, () -> detector.checkAttempt("10.0.0.100", "VICTIM@example.com"));
+        assertDoesNotThrow(() -> detector.checkAttempt("10.0.0.100", "other@example.com"));
+    }
+
+    @Test
+    public void shouldFlagClientIpRotatingUsernames() {
+        CredentialStuffingDetector detector = new CredentialStuffingDetector(properties(true), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 5; i++) {
+            detector.recordFailure("10.0.0.1", "user" + i + "@example.com");
+        }
+
+        assertThrows(RateLimitExceededException.class, () -> detector.checkAttempt("10.0.0.1", "new@example.com"));
+        assertDoesNotThrow(() -> detector.checkAttempt("10.0.0.2", "new@example.com"));
+    }
+
+    @Test
+    public void shouldLetFlaggedSourcesThroughOnceFailuresDecay() {
+        CredentialStuffingDetector detector = new CredentialStuffingDetector(properties(true), new SimpleMeterRegistry());
+        for (int i = 0; i < 3; i++) {
+            detector.recordFailure("10.0.0.1", "victim@example.com");
+        }
+
+        detector.decay();
+
+        assertDoesNotThrow(() -> detector.checkAttempt("10.0.0.2", "victim@example.com"));
+    }
+
+    @Test
+    public void shouldIgnoreFailuresWhenDisabled() {
+        CredentialStuffingDetector detector = new CredentialStuffingDetector(properties(false), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 10; i++) {
+            detector.recordFailure("10.0.0.1", "victim@example.com");
+        }
+
+        assertDoesNotThrow(() -> detector.checkAttempt("10.0.0.1", "victim@example.com"));
+    }
+
+    private static CredentialStuffingProperties properties(boolean enabled) {
+        return new CredentialStuffingProperties(enabled, 4096, 4, Duration.ofMinutes(5), 5, 3);
+    }
+}
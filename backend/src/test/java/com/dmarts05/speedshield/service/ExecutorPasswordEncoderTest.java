@@ -0,0 +1,78 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.PasswordHashingProperties;
+import com.dmarts05.speedshield.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExecutorPasswordEncoderTest {
+
+    @Test
+    public void shouldEncodeAndMatchOnHashingThread() {
+        PasswordEncoder delegate = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return Thread.currentThread().getName() + ":" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encodedPassword.endsWith(":" + rawPassword);
+            }
+        };
+        try (ExecutorPasswordEncoder passwordEncoder = new ExecutorPasswordEncoder(delegate, new PasswordHashingProperties(1, 1, PasswordHashingProperties.Algorithm.BCRYPT, Duration.ofMillis(1), 4, 8, 1, 1), new SimpleMeterRegistry())) {
+            String encodedPassword = passwordEncoder.encode("password123");
+
+            assertTrue(encodedPassword.startsWith("password-hashing-"));
+            assertTrue(passwordEncoder.matches("password123", encodedPassword));
+            assertFalse(passwordEncoder.matches("wrongPassword", encodedPassword));
+        }
+    }
+
+    @Test
+    public void shouldRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder delegate = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        try (ExecutorPasswordEncoder passwordEncoder = new ExecutorPasswordEncoder(delegate, new PasswordHashingProperties(1, 1, PasswordHashingProperties.Algorithm.BCRYPT, Duration.ofMillis(1), 4, 8, 1, 1), meterRegistry)) {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("running"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("queued", "queued"));
+            while (meterRegistry.get("password.hashing.queue.size").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThrows(PasswordHashingUnavailableException.class, () -> passwordEncoder.encode("rejected"));
+            assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+            release.countDown();
+            assertEquals("running", running.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.model.Role;
+import com.dmarts05.speedshield.model.UserEntity;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Differential tests checking that every token accepted by the fast path is accepted by jjwt with the same claims.
+ */
+class FastPathJwtVerifierTest {
+    private static final long NOW = 1_750_000_000_000L;
+    private static final String SECRET = "906424b7eee97ae4d23f4be0ed18885c439918ad0f509958902945301cf4d1e7";
+    private static final String ROTATED_SECRET = "c2ca1e7e0b1cbd0f0e9e2d0a4f0e6f3b7c1a9d8e5f4b3a2c1d0e9f8a7b6c5d4e";
+    private static final String LONG_SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+    private JwtKeyRing jwtKeyRing;
+    private JwtService jwtService;
+    private JwtParser jwtParser;
+    private FastPathJwtVerifier fastPathJwtVerifier;
+
+    @BeforeEach
+    public void beforeEach() {
+        JwtProperties jwtProperties = new JwtProperties(
+                SECRET,
+                "https://speedshield.dmarts05.com",
+                "https://speedshield.dmarts05.com",
+                Duration.ofMinutes(15),
+                Duration.ofDays(30),
+                null,
+                Map.of("rotated", ROTATED_SECRET, "long", LONG_SECRET),
+                false,
+                false);
+        jwtKeyRing = new JwtKeyRing(jwtProperties);
+        jwtService = new JwtService(jwtProperties, jwtKeyRing, new SimpleMeterRegistry());
+        jwtParser = Jwts.parser().keyLocator(jwtKeyRing).clock(() -> new Date(NOW)).build();
+        fastPathJwtVerifier = new FastPathJwtVerifier(jwtKeyRing);
+    }
+
+    @Test
+    public void shouldMatchJjwtForIssuedTokens() {
+        for (UserEntity userEntity : List.of(
+                UserEntity.builder().id(1L).username("testUser").role(Role.USER).build(),
+                UserEntity.builder().id(987_654_321L).username("adminUser").role(Role.ADMIN).build(),
+                UserEntity.builder().username("noIdUser").build())) {
+            String token = jwtService.generateToken(userEntity);
+
+            VerifiedToken verifiedToken = fastPathJwtVerifier.verify(token, System.currentTimeMillis());
+
+            assertNotNull(verifiedToken, "Issued tokens should take the fast path");
+            assertSameClaims(VerifiedToken.fromClaims(Jwts.parser().keyLocator(jwtKeyRing).build()
+                    .parseSignedClaims(token).getPayload()), verifiedToken);
+        }
+    }
+
+    @Test
+    public void shouldMatchJjwtForSupportedAlgorithmsAndKeys() {
+        assertAgreesWithJjwt(claims().header().keyId("long").and().signWith(key(LONG_SECRET), Jwts.SIG.HS512).compact(), true);
+        assertAgreesWithJjwt(claims().header().keyId("long").and().signWith(key(LONG_SECRET), Jwts.SIG.HS256).compact(), true);
+        assertAgreesWithJjwt(claims().header().keyId("rotated").and().signWith(key(ROTATED_SECRET), Jwts.SIG.HS256).compact(), true);
+        assertAgreesWithJjwt(claims().signWith(key(SECRET)).compact(), true);
+        assertAgreesWithJjwt(claims().header().type("JWT").and().signWith(key(SECRET)).compact(), true);
+        assertAgreesWithJjwt(claims().audience().add("first").add("second").and().signWith(key(SECRET)).compact(), true);
+        assertAgreesWithJjwt(claims().claim("flag", true).claim("list", List.of(1, "two")).claim("none", null)
+                .signWith(key(SECRET)).compact(), true);
+        assertAgreesWithJjwt(claims().notBefore(new Date(NOW - 1000)).signWith(key(SECRET)).compact(), true);
+    }
+
+    @Test
+    public void shouldVerifyTokensWithoutKeyIdWithLegacySecretAfterRotation() {
+        JwtProperties rotatedJwtProperties = new JwtProperties(
+                SECRET,
+                "https://speedshield.dmarts05.com",
+                "https://speedshield.dmarts05.com",
+                Duration.ofMinutes(15),
+                Duration.ofDays(30),
+                "rotated",
+                Map.of("rotated", ROTATED_SECRET),
+                false,
+                false);
+        JwtKeyRing rotatedJwtKeyRing = new JwtKeyRing(rotatedJwtProperties);
+        FastPathJwtVerifier rotatedFastPathJwtVerifier = new FastPathJwtVerifier(rotatedJwtKeyRing);
+        JwtParser rotatedJwtParser = Jwts.parser().keyLocator(rotatedJwtKeyRing).clock(() -> new Date(NOW)).build();
+        String legacyToken = claims().signWith(key(SECRET)).compact();
+
+        VerifiedToken verifiedToken = rotatedFastPathJwtVerifier.verify(legacyToken, NOW);
+
+        assertNotNull(verifiedToken, "Tokens without a key id signed with the legacy secret should take the fast path");
+        assertSameClaims(VerifiedToken.fromClaims(rotatedJwtParser.parseSignedClaims(legacyToken).getPayload()), verifiedToken);
+        assertNull(rotatedFastPathJwtVerifier.verify(claims().signWith(key(ROTATED_SECRET)).compact(), NOW));
+    }
+
+    @Test
+    public void shouldLeaveRejectedTokensToJjwt() {
+        assertAgreesWithJjwt(claims().expiration(new Date(NOW - 1000)).signWith(key(SECRET)).compact(), false);
+        assertAgreesWithJjwt(claims().notBefore(new Date(NOW + 60_000)).signWith(key(SECRET)).compact(), false);
+        assertAgreesWithJjwt(claims().header().keyId("unknown").and().signWith(key(SECRET)).compact(), false);
+        assertAgreesWithJjwt(claims().header().keyId("rotated").and().signWith(key(SECRET)).compact(), false);
+        assertAgreesWithJjwt(claims().signWith(key(ROTATED_SECRET)).compact(), false);
+        assertAgreesWithJjwt(claims().compact(), false);
+
+        String token = claims().signWith(key(SECRET)).compact();
+        assertAgreesWithJjwt(token + "=", false);
+        assertAgreesWithJjwt(token.substring(0, token.lastIndexOf('.')) + ".", false);
+        assertAgreesWithJjwt(token.substring(0, token.lastIndexOf('.')), false);
+    }
+
+    @Test
+    public void shouldLeaveUnsupportedPayloadsToJjwt() {
+        assertAgreesWithJjwt(claims().subject("ünïcödé").signWith(key(SECRET)).compact(), false);
+        assertAgreesWithJjwt(claims().subject("quoted \"subject\"").signWith(key(SECRET)).compact(), false);
+        assertAgreesWithJjwt(claims().claim("nested", Map.of("key", "value")).signWith(key(SECRET)).compact(), false);
+        assertAgreesWithJjwt(claims().claim("decimal", 1.5).signWith(key(SECRET)).compact(), false);
+        assertAgreesWithJjwt(claims().header().add("custom", "value").and().signWith(key(SECRET)).compact(), false);
+    }
+
+    @Test
+    public void shouldNeverAcceptTokensRejectedByJjwt() {
+        Random random = new Random(42);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tokens.add(claims().header().keyId(i % 2 == 0 ? "rotated" : JwtKeyRing.DEFAULT_KEY_ID).and()
+                    .signWith(key(i % 2 == 0 ? ROTATED_SECRET : SECRET)).compact());
+        }
+
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_.=";
+        for (int i = 0; i < 5_000; i++) {
+            char[] token = tokens.get(random.nextInt(tokens.size())).toCharArray();
+            token[random.nextInt(token.length)] = alphabet.charAt(random.nextInt(alphabet.length()));
+            assertNeverAcceptsMore(new String(token));
+        }
+    }
+
+    @Test
+    public void shouldReuseKnownHeadersAcrossTokens() {
+        for (int i = 0; i < 100; i++) {
+            String token = jwtService.generateToken(UserEntity.builder().id((long) i).username("user" + i).build());
+            VerifiedToken verifiedToken = fastPathJwtVerifier.verify(token, System.currentTimeMillis());
+            assertNotNull(verifiedToken);
+            assertEquals("user" + i, verifiedToken.getSubject());
+            assertEquals(i, verifiedToken.getUserId());
+        }
+    }
+
+    private void assertAgreesWithJjwt(String token, boolean fastPathExpected) {
+        VerifiedToken verifiedToken = fastPathJwtVerifier.verify(token, NOW);
+        assertEquals(fastPathExpected, verifiedToken != null, () -> "Unexpected fast path outcome for " + token);
+        assertNeverAcceptsMore(token);
+    }
+
+    private void assertNeverAcceptsMore(String token) {
+        VerifiedToken verifiedToken = fastPathJwtVerifier.verify(token, NOW);
+        if (verifiedToken == null) {
+            return;
+        }
+        Claims claims;
+        try {
+            claims = jwtParser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            fail("Fast path accepted a token rejected by jjwt: " + token, e);
+            return;
+        }
+        assertSameClaims(VerifiedToken.fromClaims(claims), verifiedToken);
+    }
+
+    private static void assertSameClaims(VerifiedToken expected, VerifiedToken actual) {
+        assertEquals(expected.getTokenId(), actual.getTokenId());
+        assertEquals(expected.getSubject(), actual.getSubject());
+        assertEquals(expected.getIssuer(), actual.getIssuer());
+        assertEquals(expected.getAudience(), actual.getAudience());
+        assertEquals(expected.getIssuedAt(), actual.getIssuedAt());
+        assertEquals(expected.getExpiration(), actual.getExpiration());
+        assertEquals(expected.getUserId(), actual.getUserId());
+        assertEquals(expected.getRole(), actual.getRole());
+    }
+
+    private static JwtBuilder claims() {
+        return Jwts.builder()
+                .id("4b0c1d5e-7f7a-4a4e-9d3c-2f1e0a9b8c7d")
+                .subject("testUser")
+                .claim(JwtService.USER_ID_CLAIM, 7L)
+                .claim(JwtService.ROLE_CLAIM, Role.USER.name())
+                .issuer("https://speedshield.dmarts05.com")
+                .audience().add("https://speedshield.dmarts05.com").and()
+                .issuedAt(new Date(NOW - 60_000))
+                .expiration(new Date(NOW + 60_000));
+    }
+
+    private static SecretKey key(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+}
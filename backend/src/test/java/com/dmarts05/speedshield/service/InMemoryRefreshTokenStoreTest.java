@@ -0,0 +1,214 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.config.RefreshTokenStoreProperties;
+import com.dmarts05.speedshield.exception.JwtAndRefreshTokenMismatchException;
+import com.dmarts05.speedshield.exception.RefreshTokenNotFoundException;
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.repository.RefreshTokenRepository;
+import com.dmarts05.speedshield.repository.StoredRefreshToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryRefreshTokenStoreTest {
+    private static final UserEntity USER_ENTITY = UserEntity.builder().id(1L).username("testUser").build();
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private JwtProperties jwtProperties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(jwtProperties.getRefreshExpiresIn()).thenReturn(Duration.ofDays(30));
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    }
+
+    @Test
+    public void shouldLetOnlyOneConcurrentRotationClaimRefreshToken() throws Exception {
+        InMemoryRefreshTokenStore refreshTokenStore = store(false, Duration.ofMinutes(1));
+        refreshTokenStore.insert(refreshToken("token", Duration.ofDays(1)));
+
+        List<Future<RefreshTokenEntity>> rotations = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 32; i++) {
+                String replacement = "replacement" + i;
+                rotations.add(executor.submit(() -> refreshTokenStore.rotate("token", claimed -> refreshToken(replacement, Duration.ofDays(1)))));
+            }
+        }
+
+        assertEquals(1, rotations.stream().filter(rotation -> rotation.state() == Future.State.SUCCESS).count());
+        rotations.stream()
+                .filter(rotation -> rotation.state() == Future.State.FAILED)
+                .forEach(rotation -> assertInstanceOf(RefreshTokenNotFoundException.class, rotation.exceptionNow()));
+        assertEquals(1, meterRegistry.get("refresh.tokens.store.size").gauge().value());
+    }
+
+    @Test
+    public void shouldKeepClaimedRefreshTokenWhenReplacementFails() {
+        InMemoryRefreshTokenStore refreshTokenStore = store(false, Duration.ofMinutes(1));
+        refreshTokenStore.insert(refreshToken("token", Duration.ofDays(1)));
+
+        assertThrows(JwtAndRefreshTokenMismatchException.class, () -> refreshTokenStore.rotate("token", claimed -> {
+            throw new JwtAndRefreshTokenMismatchException();
+        }));
+        RefreshTokenEntity rotated = refreshTokenStore.rotate("token", claimed -> {
+            assertEquals(USER_ENTITY.getId(), claimed.getUserId());
+            return refreshToken("replacement", Duration.ofDays(1));
+        });
+
+        assertEquals("replacement", rotated.getToken());
+        assertThrows(RefreshTokenNotFoundException.class, () -> refreshTokenStore.rotate("token", claimed -> fail()));
+    }
+
+    @Test
+    public void shouldEvictExpiredRefreshTokensThroughExpiryIndex() throws InterruptedException {
+        InMemoryRefreshTokenStore refreshTokenStore = store(false, Duration.ofMillis(10));
+        refreshTokenStore.insert(refreshToken("expired", Duration.ofMillis(-1)));
+        refreshTokenStore.insert(refreshToken("token", Duration.ofDays(1)));
+        Thread.sleep(20);
+
+        assertEquals(1, refreshTokenStore.evictExpiredTokens());
+
+        assertThrows(RefreshTokenNotFoundException.class, () -> refreshTokenStore.rotate("expired", claimed -> fail()));
+        assertEquals(1, meterRegistry.get("refresh.tokens.store.size").gauge().value());
+    }
+
+    @Test
+    public void shouldWriteBehindOnlyNetChanges() {
+        InMemoryRefreshTokenStore refreshTokenStore = store(true, Duration.ofMinutes(1));
+        refreshTokenStore.insert(refreshToken("first", Duration.ofDays(1)));
+        refreshTokenStore.insert(refreshToken("second", Duration.ofDays(1)));
+        refreshTokenStore.rotate("first", claimed -> refreshToken("third", Duration.ofDays(1)));
+
+        refreshTokenStore.flush();
+
+        // The first refresh token was inserted and deleted within the same flush, so it is never written
+        assertEquals(List.of("second", "third"), savedTokens());
+        verify(refreshTokenRepository, never()).deleteAllByTokens(anyCollection());
+
+        refreshTokenStore.rotate("second", claimed -> refreshToken("fourth", Duration.ofDays(1)));
+        refreshTokenStore.flush();
+
+        verify(refreshTokenRepository, times(1)).deleteAllByTokens(List.of("second"));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    public void shouldRetryFailedFlushFirst() {
+        InMemoryRefreshTokenStore refreshTokenStore = store(true, Duration.ofMinutes(1));
+        when(refreshTokenRepository.saveAll(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenAnswer(invocation -> List.copyOf(invocation.<Collection<RefreshTokenEntity>>getArgument(0)));
+        refreshTokenStore.insert(refreshToken("first", Duration.ofDays(1)));
+        refreshTokenStore.flush();
+        refreshTokenStore.insert(refreshToken("second", Duration.ofDays(1)));
+
+        refreshTokenStore.flush();
+
+        ArgumentCaptor<Collection<RefreshTokenEntity>> captor = ArgumentCaptor.captor();
+        verify(refreshTokenRepository, times(2)).saveAll(captor.capture());
+        assertEquals(List.of("first", "second"), captor.getValue().stream().map(RefreshTokenEntity::getToken).toList());
+    }
+
+    @Test
+    public void shouldIsolateAndEventuallyDropChangeThatKeepsFailing() {
+        InMemoryRefreshTokenStore refreshTokenStore = store(true, Duration.ofMinutes(1));
+        when(refreshTokenRepository.saveAll(anyCollection())).thenThrow(new DataIntegrityViolationException("value too long"));
+        when(refreshTokenRepository.save(argThat(refreshToken -> refreshToken.getToken().equals("bad"))))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        refreshTokenStore.insert(refreshToken("bad", Duration.ofDays(1)));
+        refreshTokenStore.insert(refreshToken("good", Duration.ofDays(1)));
+        refreshTokenStore.flush();
+        refreshTokenStore.insert(refreshToken("later", Duration.ofDays(1)));
+
+        for (int i = 0; i < 4; i++) {
+            refreshTokenStore.flush();
+        }
+
+        ArgumentCaptor<RefreshTokenEntity> captor = ArgumentCaptor.captor();
+        verify(refreshTokenRepository, times(5)).save(captor.capture());
+        assertEquals(List.of("bad", "good", "bad", "later", "bad"), captor.getAllValues().stream().map(RefreshTokenEntity::getToken).toList());
+        assertEquals(1, meterRegistry.get("refresh.tokens.write.behind.dropped").counter().count());
+    }
+
+    @Test
+    public void shouldDropOldestChangesBeyondRetainedLimit() {
+        InMemoryRefreshTokenStore refreshTokenStore = store(true, Duration.ofMinutes(1));
+        when(refreshTokenRepository.saveAll(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenAnswer(invocation -> List.copyOf(invocation.<Collection<RefreshTokenEntity>>getArgument(0)));
+        for (int i = 0; i < 6; i++) {
+            refreshTokenStore.insert(refreshToken("token" + i, Duration.ofDays(1)));
+        }
+        refreshTokenStore.flush();
+
+        refreshTokenStore.flush();
+
+        assertEquals(List.of("token2", "token3", "token4", "token5"), savedTokens());
+        assertEquals(2, meterRegistry.get("refresh.tokens.write.behind.dropped").counter().count());
+    }
+
+    @Test
+    public void shouldReloadUnexpiredRefreshTokensAtStartup() {
+        InMemoryRefreshTokenStore refreshTokenStore = store(true, Duration.ofMinutes(1));
+        StoredRefreshToken storedRefreshToken = mock(StoredRefreshToken.class);
+        when(storedRefreshToken.getToken()).thenReturn("token");
+        when(storedRefreshToken.getUserId()).thenReturn(USER_ENTITY.getId());
+        when(storedRefreshToken.getExpiryDate()).thenReturn(Instant.now().plus(Duration.ofDays(1)));
+        when(refreshTokenRepository.findAllUnexpired(any())).thenReturn(List.of(storedRefreshToken));
+
+        refreshTokenStore.afterSingletonsInstantiated();
+
+        verify(refreshTokenRepository, times(1)).deleteExpiredChunk(any(), anyInt());
+        assertEquals("replacement", refreshTokenStore.rotate("token", claimed -> refreshToken("replacement", Duration.ofDays(1))).getToken());
+    }
+
+    private InMemoryRefreshTokenStore store(boolean writeBehind, Duration tickDuration) {
+        RefreshTokenStoreProperties refreshTokenStoreProperties = new RefreshTokenStoreProperties(
+                RefreshTokenStoreProperties.Type.MEMORY, 8, tickDuration, writeBehind, Duration.ofSeconds(1), 3, 4);
+        return new InMemoryRefreshTokenStore(refreshTokenRepository, transactionManager, refreshTokenStoreProperties, jwtProperties, meterRegistry);
+    }
+
+    private List<String> savedTokens() {
+        ArgumentCaptor<Collection<RefreshTokenEntity>> captor = ArgumentCaptor.captor();
+        verify(refreshTokenRepository, atLeastOnce()).saveAll(captor.capture());
+        return captor.getValue().stream().map(RefreshTokenEntity::getToken).toList();
+    }
+
+    private static RefreshTokenEntity refreshToken(String token, Duration expiresIn) {
+        return RefreshTokenEntity.builder()
+                .userEntity(USER_ENTITY)
+                .token(token)
+                .expiryDate(Instant.now().plus(expiresIn))
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.IntrospectionRateLimitProperties;
+import com.dmarts05.speedshield.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntrospectionRateLimiterTest {
+
+    @Test
+    public void shouldLimitIntrospectedTokensPerCaller() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IntrospectionRateLimiter introspectionRateLimiter = new IntrospectionRateLimiter(properties(true), meterRegistry);
+
+        introspectionRateLimiter.checkAttempt("gateway-a", 100);
+        introspectionRateLimiter.checkAttempt("gateway-a", 50);
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> introspectionRateLimiter.checkAttempt("gateway-a", 51));
+
+        assertTrue(exception.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertDoesNotThrow(() -> introspectionRateLimiter.checkAttempt("gateway-b", 100));
+        assertEquals(1, meterRegistry.get("auth.rate.limit.rejected").tag("key", "introspection_caller").counter().count());
+    }
+
+    @Test
+    public void shouldAllowEveryAttemptWhenDisabled() {
+        IntrospectionRateLimiter introspectionRateLimiter = new IntrospectionRateLimiter(properties(false), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 10; i++) {
+            assertDoesNotThrow(() -> introspectionRateLimiter.checkAttempt("gateway-a", 100));
+        }
+    }
+
+    private static IntrospectionRateLimitProperties properties(boolean enabled) {
+        return new IntrospectionRateLimitProperties(enabled, 200, Duration.ofMinutes(1), 1000);
+    }
+}
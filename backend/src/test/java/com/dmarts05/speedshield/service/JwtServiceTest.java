@@ -2,19 +2,24 @@ package com.dmarts05.speedshield.service;
 
 import com.dmarts05.speedshield.config.JwtProperties;
 import com.dmarts05.speedshield.exception.JwtNotFoundException;
+import com.dmarts05.speedshield.model.Role;
 import com.dmarts05.speedshield.model.UserEntity;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
@@ -22,12 +27,12 @@ import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class JwtServiceTest {
-    private static UserEntity userEntity;
+    private static final String SECRET = "906424b7eee97ae4d23f4be0ed18885c439918ad0f509958902945301cf4d1e7";
+    private static final String ROTATED_SECRET = "c2ca1e7e0b1cbd0f0e9e2d0a4f0e6f3b7c1a9d8e5f4b3a2c1d0e9f8a7b6c5d4e";
 
-    @Mock
-    private JwtProperties jwtProperties;
+    private static UserEntity userEntity;
 
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private JwtService jwtService;
 
     @BeforeAll
@@ -35,6 +40,12 @@ class JwtServiceTest {
         userEntity = UserEntity.builder().id(1L).username("testUser").build();
     }
 
+    @BeforeEach
+    public void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        jwtService = createJwtService(null, Map.of());
+    }
+
     @Test
     public void shouldExtractTokenFromHeader() throws JwtNotFoundException {
         HttpServletRequest request = mock(HttpServletRequest.class);
@@ -55,7 +66,6 @@ class JwtServiceTest {
 
     @Test
     public void shouldExtractUsername() {
-        setUpMocks();
         String token = jwtService.generateToken(userEntity);
         String username = jwtService.extractUsername(token);
         assertEquals(userEntity.getUsername(), username);
@@ -63,7 +73,6 @@ class JwtServiceTest {
 
     @Test
     public void shouldExtractUsernameExpiredToken() {
-        setUpMocks();
         String token = generateExpiredToken(userEntity);
         String username = jwtService.extractUsername(token);
         assertEquals(userEntity.getUsername(), username);
@@ -71,7 +80,6 @@ class JwtServiceTest {
 
     @Test
     public void shouldExtractExpiration() {
-        setUpMocks();
         String token = jwtService.generateToken(userEntity);
         Date expiration = jwtService.extractExpiration(token);
         assertNotNull(expiration);
@@ -79,7 +87,6 @@ class JwtServiceTest {
 
     @Test
     public void shouldExtractExpirationExpiredToken() {
-        setUpMocks();
         String token = generateExpiredToken(userEntity);
         Date expiration = jwtService.extractExpiration(token);
         assertNotNull(expiration);
@@ -87,7 +94,6 @@ class JwtServiceTest {
 
     @Test
     public void shouldValidateToken() {
-        setUpMocks();
         String token = jwtService.generateToken(userEntity);
         boolean isValid = jwtService.isTokenValid(token, userEntity);
         assertTrue(isValid);
@@ -95,7 +101,6 @@ class JwtServiceTest {
 
     @Test
     public void shouldNotValidateExpiredToken() {
-        setUpMocks();
         String token = generateExpiredToken(userEntity);
         boolean isValid = jwtService.isTokenValid(token, userEntity);
         assertFalse(isValid);
@@ -103,23 +108,96 @@ class JwtServiceTest {
 
     @Test
     public void shouldNotValidateTokenFromAnotherUser() {
-        setUpMocks();
         UserEntity anotherTestUser = UserEntity.builder().username("anotherTestUser").build();
         String token = jwtService.generateToken(anotherTestUser);
         boolean isValid = jwtService.isTokenValid(token, userEntity);
         assertFalse(isValid);
     }
 
+    @Test
+    public void shouldVerifyToken() {
+        String token = jwtService.generateToken(userEntity);
+        Optional<VerifiedToken> verifiedToken = jwtService.verifyToken(token);
+        assertTrue(verifiedToken.isPresent());
+        assertEquals(userEntity.getUsername(), verifiedToken.get().getSubject());
+        assertTrue(jwtService.isTokenValid(verifiedToken.get(), userEntity));
+    }
+
+    @Test
+    public void shouldNotVerifyExpiredToken() {
+        String token = generateExpiredToken(userEntity);
+        assertTrue(jwtService.verifyToken(token).isEmpty());
+    }
+
+    @Test
+    public void shouldNotVerifyTamperedToken() {
+        String token = jwtService.generateToken(userEntity);
+        String tamperedToken = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        assertTrue(jwtService.verifyToken(tamperedToken).isEmpty());
+    }
+
+    @Test
+    public void shouldAssignUniqueTokenId() {
+        VerifiedToken firstToken = jwtService.verifyToken(jwtService.generateToken(userEntity)).orElseThrow();
+        VerifiedToken secondToken = jwtService.verifyToken(jwtService.generateToken(userEntity)).orElseThrow();
+
+        assertNotNull(firstToken.getTokenId());
+        assertNotEquals(firstToken.getTokenId(), secondToken.getTokenId());
+    }
+
+    @Test
+    public void shouldEmbedUserIdAndRoleClaims() {
+        UserEntity adminUser = UserEntity.builder().id(2L).username("adminUser").role(Role.ADMIN).build();
+        String token = jwtService.generateToken(adminUser);
+        VerifiedToken verifiedToken = jwtService.verifyToken(token).orElseThrow();
+
+        assertTrue(verifiedToken.hasUserClaims());
+        assertEquals(2L, verifiedToken.getUserId());
+        assertEquals(Role.ADMIN, verifiedToken.getRole());
+    }
+
+    @Test
+    public void shouldVerifyTokenSignedWithPreviousKeyAfterRotation() {
+        String token = jwtService.generateToken(userEntity);
+        JwtService rotatedJwtService = createJwtService("2024-06", Map.of("2024-06", ROTATED_SECRET));
+
+        assertTrue(rotatedJwtService.verifyToken(token).isPresent());
+        assertTrue(rotatedJwtService.verifyToken(rotatedJwtService.generateToken(userEntity)).isPresent());
+    }
+
+    @Test
+    public void shouldVerifyTokenWithoutKeyIdSignedWithLegacySecretAfterRotation() {
+        // Tokens issued before the key ring carry no "kid" header and are signed with the legacy secret
+        String token = Jwts.builder()
+                .subject(userEntity.getUsername())
+                .issuer("https://speedshield.dmarts05.com")
+                .audience().add("https://speedshield.dmarts05.com").and()
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+        JwtService rotatedJwtService = createJwtService("2024-06", Map.of("2024-06", ROTATED_SECRET));
+
+        assertEquals(userEntity.getUsername(), rotatedJwtService.verifyToken(token).orElseThrow().getSubject());
+        assertEquals(userEntity.getUsername(), rotatedJwtService.extractUsername(token));
+    }
+
+    @Test
+    public void shouldNotVerifyTokenSignedWithUnknownKey() {
+        JwtService otherJwtService = createJwtService("other", Map.of("other", ROTATED_SECRET));
+        String token = otherJwtService.generateToken(userEntity);
+
+        assertTrue(jwtService.verifyToken(token).isEmpty());
+    }
+
     @Test
     public void shouldGenerateToken() {
-        setUpMocks();
         String token = jwtService.generateToken(userEntity);
         assertNotNull(token);
     }
 
     @Test
     public void shouldGenerateTokenWithClaims() {
-        setUpMocks();
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", "admin");
         String token = jwtService.generateToken(claims, userEntity);
@@ -127,18 +205,34 @@ class JwtServiceTest {
         assertEquals("admin", jwtService.extractClaim(token, (c) -> c.get("role")));
     }
 
+    @Test
+    public void shouldRecordSigningAndVerificationStageTimers() {
+        String token = jwtService.generateToken(userEntity);
+        jwtService.verifyToken(token);
+        jwtService.verifyToken(token);
+
+        assertEquals(1, meterRegistry.get(AuthMetrics.STAGE_TIMER).tag("stage", AuthMetrics.JWT_SIGNING).timer().count());
+        assertEquals(2, meterRegistry.get(AuthMetrics.STAGE_TIMER).tag("stage", AuthMetrics.JWT_VERIFICATION).timer().count());
+    }
+
     private String generateExpiredToken(UserEntity userEntity) {
-        setUpMocks();
         Map<String, Object> claims = new HashMap<>();
         claims.put("exp", new Date(System.currentTimeMillis() - 1000));
         claims.put("iat", new Date(System.currentTimeMillis() - 2000));
         return jwtService.generateToken(claims, userEntity);
     }
 
-    private void setUpMocks() {
-        when(jwtProperties.getSecret()).thenReturn("906424b7eee97ae4d23f4be0ed18885c439918ad0f509958902945301cf4d1e7");
-        when(jwtProperties.getExpiresIn()).thenReturn(Duration.ofMinutes(15));
-        when(jwtProperties.getIssuer()).thenReturn("https://speedshield.dmarts05.com");
-        when(jwtProperties.getAudience()).thenReturn("https://speedshield.dmarts05.com");
+    private JwtService createJwtService(String activeKeyId, Map<String, String> keys) {
+        JwtProperties jwtProperties = new JwtProperties(
+                SECRET,
+                "https://speedshield.dmarts05.com",
+                "https://speedshield.dmarts05.com",
+                Duration.ofMinutes(15),
+                Duration.ofDays(30),
+                activeKeyId,
+                keys,
+                false,
+                true);
+        return new JwtService(jwtProperties, new JwtKeyRing(jwtProperties), meterRegistry);
     }
 }
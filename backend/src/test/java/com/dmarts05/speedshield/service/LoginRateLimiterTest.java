@@ -0,0 +1,51 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.LoginRateLimitProperties;
+import com.dmarts05.speedshield.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    @Test
+    public void shouldLimitUsernameAcrossClientIpsIgnoringCase() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(properties(true), meterRegistry);
+
+        loginRateLimiter.checkAttempt("10.0.0.1", "user@example.com");
+        loginRateLimiter.checkAttempt("10.0.0.2", "USER@example.com");
+        RateLimitExceededException exception = assertThrows(RateLimitExceededException.class,
+                () -> loginRateLimiter.checkAttempt("10.0.0.3", "user@example.com"));
+
+        assertTrue(exception.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertEquals(1, meterRegistry.get("auth.rate.limit.rejected").tag("key", "username").counter().count());
+    }
+
+    @Test
+    public void shouldLimitClientIpAcrossUsernames() {
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(properties(true), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 4; i++) {
+            loginRateLimiter.checkAttempt("10.0.0.1", "user" + i + "@example.com");
+        }
+
+        assertThrows(RateLimitExceededException.class, () -> loginRateLimiter.checkAttempt("10.0.0.1", "other@example.com"));
+    }
+
+    @Test
+    public void shouldAllowEveryAttemptWhenDisabled() {
+        LoginRateLimiter loginRateLimiter = new LoginRateLimiter(properties(false), new SimpleMeterRegistry());
+
+        for (int i = 0; i < 10; i++) {
+            assertDoesNotThrow(() -> loginRateLimiter.checkAttempt("10.0.0.1", "user@example.com"));
+        }
+    }
+
+    private static LoginRateLimitProperties properties(boolean enabled) {
+        return new LoginRateLimitProperties(enabled, 4, Duration.ofMinutes(1), 2, Duration.ofMinutes(1), 1000);
+    }
+}
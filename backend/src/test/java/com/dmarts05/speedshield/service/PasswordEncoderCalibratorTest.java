@@ -0,0 +1,63 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.PasswordHashingProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordEncoderCalibratorTest {
+
+    @Test
+    public void shouldEncodeWithVersionedBcryptPrefix() {
+        PasswordEncoder passwordEncoder = createPasswordEncoder(PasswordHashingProperties.Algorithm.BCRYPT, 5);
+
+        String encodedPassword = passwordEncoder.encode("password123");
+
+        assertTrue(encodedPassword.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(passwordEncoder.matches("password123", encodedPassword));
+        assertFalse(passwordEncoder.upgradeEncoding(encodedPassword));
+    }
+
+    @Test
+    public void shouldMatchAndUpgradeLegacyUnprefixedHash() {
+        PasswordEncoder passwordEncoder = createPasswordEncoder(PasswordHashingProperties.Algorithm.BCRYPT, 5);
+        String legacyEncodedPassword = new BCryptPasswordEncoder(4).encode("password123");
+
+        assertTrue(passwordEncoder.matches("password123", legacyEncodedPassword));
+        assertTrue(passwordEncoder.upgradeEncoding(legacyEncodedPassword));
+    }
+
+    @Test
+    public void shouldUpgradeHashWithLowerCost() {
+        PasswordEncoder weakerPasswordEncoder = createPasswordEncoder(PasswordHashingProperties.Algorithm.BCRYPT, 4);
+        PasswordEncoder passwordEncoder = createPasswordEncoder(PasswordHashingProperties.Algorithm.BCRYPT, 5);
+        String encodedPassword = weakerPasswordEncoder.encode("password123");
+
+        assertTrue(passwordEncoder.matches("password123", encodedPassword));
+        assertTrue(passwordEncoder.upgradeEncoding(encodedPassword));
+    }
+
+    @Test
+    public void shouldEncodeWithArgon2idAndUpgradeBcryptHashes() {
+        PasswordEncoder bcryptPasswordEncoder = createPasswordEncoder(PasswordHashingProperties.Algorithm.BCRYPT, 4);
+        PasswordEncoder passwordEncoder = createPasswordEncoder(PasswordHashingProperties.Algorithm.ARGON2ID, 4);
+        String bcryptEncodedPassword = bcryptPasswordEncoder.encode("password123");
+
+        String encodedPassword = passwordEncoder.encode("password123");
+
+        assertTrue(encodedPassword.startsWith("{argon2id}$argon2id$"));
+        assertTrue(passwordEncoder.matches("password123", encodedPassword));
+        assertFalse(passwordEncoder.upgradeEncoding(encodedPassword));
+        assertTrue(passwordEncoder.matches("password123", bcryptEncodedPassword));
+        assertTrue(passwordEncoder.upgradeEncoding(bcryptEncodedPassword));
+    }
+
+    private PasswordEncoder createPasswordEncoder(PasswordHashingProperties.Algorithm algorithm, int bcryptMinStrength) {
+        PasswordHashingProperties passwordHashingProperties = new PasswordHashingProperties(1, 1, algorithm, Duration.ofNanos(1), bcryptMinStrength, 64, 1, 1);
+        return new PasswordEncoderCalibrator(passwordHashingProperties).createPasswordEncoder();
+    }
+}
@@ -0,0 +1,53 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.RefreshTokenCleanupProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenCleanupServiceTest {
+    private static final int CHUNK_SIZE = 100;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenCleanupService refreshTokenCleanupService;
+
+    @BeforeEach
+    public void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        RefreshTokenCleanupProperties properties = new RefreshTokenCleanupProperties(Duration.ofMinutes(1), CHUNK_SIZE, 3);
+        refreshTokenCleanupService = new RefreshTokenCleanupService(refreshTokenService, properties, meterRegistry);
+    }
+
+    @Test
+    public void shouldDeleteChunksUntilOneIsPartiallyFilled() {
+        when(refreshTokenService.deleteExpiredTokens(CHUNK_SIZE)).thenReturn(CHUNK_SIZE, 42);
+
+        long deleted = refreshTokenCleanupService.cleanupExpiredTokens();
+
+        assertEquals(CHUNK_SIZE + 42, deleted);
+        verify(refreshTokenService, times(2)).deleteExpiredTokens(CHUNK_SIZE);
+        assertEquals(CHUNK_SIZE + 42, meterRegistry.get("refresh.tokens.cleanup.deleted").counter().count());
+        assertEquals(2, meterRegistry.get("refresh.tokens.cleanup.chunk").timer().count());
+    }
+
+    @Test
+    public void shouldStopAtMaxChunksPerRun() {
+        when(refreshTokenService.deleteExpiredTokens(CHUNK_SIZE)).thenReturn(CHUNK_SIZE);
+
+        long deleted = refreshTokenCleanupService.cleanupExpiredTokens();
+
+        assertEquals(3L * CHUNK_SIZE, deleted);
+        verify(refreshTokenService, times(3)).deleteExpiredTokens(CHUNK_SIZE);
+    }
+}
@@ -0,0 +1,73 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.config.RefreshTokenPartitioningProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenPartitionManagerTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private JwtProperties jwtProperties;
+    private RefreshTokenPartitionManager refreshTokenPartitionManager;
+
+    @BeforeEach
+    public void beforeEach() {
+        RefreshTokenPartitioningProperties properties = new RefreshTokenPartitioningProperties(true, Duration.ofHours(1), 2);
+        refreshTokenPartitionManager = new RefreshTokenPartitionManager(jdbcTemplate, jwtProperties, properties);
+    }
+
+    @Test
+    public void shouldCreatePartitionsCoveringRefreshTokenLifetime() {
+        when(jwtProperties.getRefreshExpiresIn()).thenReturn(Duration.ofDays(30));
+
+        refreshTokenPartitionManager.createPartitions(TODAY);
+
+        ArgumentCaptor<String> statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(34)).execute(statements.capture());
+        assertEquals("CREATE TABLE IF NOT EXISTS refresh_tokens_p20240615 PARTITION OF refresh_tokens"
+                + " FOR VALUES FROM ('2024-06-15T00:00:00Z') TO ('2024-06-16T00:00:00Z')", statements.getAllValues().get(0));
+        assertTrue(statements.getAllValues().get(33).startsWith("CREATE TABLE IF NOT EXISTS refresh_tokens_p20240718 "));
+    }
+
+    @Test
+    public void shouldDropOnlyExpiredPartitions() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "refresh_tokens_p20240613", "refresh_tokens_p20240614", "refresh_tokens_p20240615", "refresh_tokens_p20240616", "refresh_tokens_old"));
+
+        int dropped = refreshTokenPartitionManager.dropExpiredPartitions(TODAY);
+
+        assertEquals(2, dropped);
+        verify(jdbcTemplate).execute("ALTER TABLE refresh_tokens DETACH PARTITION refresh_tokens_p20240613 CONCURRENTLY");
+        verify(jdbcTemplate).execute("DROP TABLE refresh_tokens_p20240613");
+        verify(jdbcTemplate).execute("ALTER TABLE refresh_tokens DETACH PARTITION refresh_tokens_p20240614 CONCURRENTLY");
+        verify(jdbcTemplate).execute("DROP TABLE refresh_tokens_p20240614");
+        verify(jdbcTemplate, times(4)).execute(anyString());
+    }
+
+    @Test
+    public void shouldSkipMaintenanceWhenTableIsNotPartitioned() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class))).thenReturn(false);
+
+        refreshTokenPartitionManager.maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,112 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.PostgresTestConfiguration;
+import com.dmarts05.speedshield.exception.JwtAndRefreshTokenMismatchException;
+import com.dmarts05.speedshield.exception.RefreshTokenNotFoundException;
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.model.Role;
+import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.repository.RefreshTokenRepository;
+import com.dmarts05.speedshield.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks refresh token rotation through the JPA store against a real database: the native delete-returning claim,
+ * the rollback of a failed rotation and concurrent rotations, counting the statements through Hibernate statistics.
+ */
+@SpringBootTest
+@Import(PostgresTestConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class RefreshTokenRotationDatabaseTest {
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private UserEntity userEntity;
+
+    @BeforeEach
+    public void beforeEach() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userEntity = userRepository.save(user("rotating-"));
+    }
+
+    @Test
+    public void shouldRotateWithOneClaimAndOneInsertStatement() {
+        // Draws a block of ids from the sequence, so that the rotation below does not have to
+        refreshTokenService.generateRefreshToken(userEntity);
+        String refreshToken = refreshTokenService.generateRefreshToken(userEntity);
+        statistics.clear();
+
+        RefreshTokenEntity rotated = refreshTokenService.rotateRefreshToken(userEntity, refreshToken);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertTrue(refreshTokenRepository.findByToken(refreshToken).isEmpty());
+        assertTrue(refreshTokenRepository.findByToken(rotated.getToken()).isPresent());
+    }
+
+    @Test
+    public void shouldKeepClaimedRefreshTokenWhenValidationFails() {
+        String refreshToken = refreshTokenService.generateRefreshToken(userEntity);
+        UserEntity otherUserEntity = userRepository.save(user("other-"));
+
+        assertThrows(JwtAndRefreshTokenMismatchException.class, () -> refreshTokenService.rotateRefreshToken(otherUserEntity, refreshToken));
+
+        assertTrue(refreshTokenRepository.findByToken(refreshToken).isPresent());
+        assertNotNull(refreshTokenService.rotateRefreshToken(userEntity, refreshToken));
+    }
+
+    @Test
+    public void shouldLetOnlyOneOfConcurrentRotationsWin() throws Exception {
+        String refreshToken = refreshTokenService.generateRefreshToken(userEntity);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+
+        List<Future<RefreshTokenEntity>> rotations;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            rotations = List.of(
+                    executor.submit(() -> rotateTogether(barrier, refreshToken)),
+                    executor.submit(() -> rotateTogether(barrier, refreshToken)));
+        }
+
+        assertEquals(1, rotations.stream().filter(rotation -> rotation.state() == Future.State.SUCCESS).count());
+        Future<RefreshTokenEntity> lost = rotations.stream().filter(rotation -> rotation.state() == Future.State.FAILED).findFirst().orElseThrow();
+        assertInstanceOf(RefreshTokenNotFoundException.class, lost.exceptionNow());
+        assertTrue(refreshTokenRepository.findByToken(refreshToken).isEmpty());
+    }
+
+    private RefreshTokenEntity rotateTogether(CyclicBarrier barrier, String refreshToken) throws Exception {
+        barrier.await(10, TimeUnit.SECONDS);
+        return refreshTokenService.rotateRefreshToken(userEntity, refreshToken);
+    }
+
+    private static UserEntity user(String usernamePrefix) {
+        return UserEntity.builder()
+                .name("Rotating User")
+                .username(usernamePrefix + UUID.randomUUID())
+                .password("hash")
+                .role(Role.USER)
+                .build();
+    }
+}
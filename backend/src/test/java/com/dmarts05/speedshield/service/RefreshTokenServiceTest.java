@@ -3,13 +3,16 @@ package com.dmarts05.speedshield.service;
 import com.dmarts05.speedshield.config.JwtProperties;
 import com.dmarts05.speedshield.exception.ExpiredRefreshTokenException;
 import com.dmarts05.speedshield.exception.JwtAndRefreshTokenMismatchException;
+import com.dmarts05.speedshield.exception.RefreshTokenNotFoundException;
 import com.dmarts05.speedshield.model.RefreshTokenEntity;
 import com.dmarts05.speedshield.model.UserEntity;
+import com.dmarts05.speedshield.repository.ClaimedRefreshToken;
 import com.dmarts05.speedshield.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -36,7 +39,7 @@ class RefreshTokenServiceTest {
     private JwtProperties jwtProperties;
     @Mock
     private UserService userService;
-    @InjectMocks
+    private SimpleMeterRegistry meterRegistry;
     private RefreshTokenService refreshTokenService;
 
     @BeforeAll
@@ -48,6 +51,12 @@ class RefreshTokenServiceTest {
         userEntity = UserEntity.builder().id(1L).username(username).build();
     }
 
+    @BeforeEach
+    public void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        refreshTokenService = new RefreshTokenService(new JpaRefreshTokenStore(refreshTokenRepository, Optional.empty(), meterRegistry), jwtService, jwtProperties, userService, meterRegistry);
+    }
+
     @Test
     public void shouldGenerateRefreshToken() {
         when(jwtProperties.getRefreshExpiresIn()).thenReturn(refreshExpiresIn);
@@ -59,46 +68,78 @@ class RefreshTokenServiceTest {
     }
 
     @Test
-    public void shouldValidateRefreshTokenSuccessfully() {
-        RefreshTokenEntity refreshTokenEntity = RefreshTokenEntity.builder()
-                .userEntity(userEntity)
-                .token(refreshToken)
-                .expiryDate(Instant.now().plus(Duration.ofDays(1)))
-                .build();
+    public void shouldGenerateRefreshTokenThroughWriteCoalescer() {
+        RefreshTokenWriteCoalescer writeCoalescer = mock(RefreshTokenWriteCoalescer.class);
+        RefreshTokenService coalescingRefreshTokenService = new RefreshTokenService(new JpaRefreshTokenStore(refreshTokenRepository, Optional.of(writeCoalescer), meterRegistry), jwtService, jwtProperties, userService, meterRegistry);
+        when(jwtProperties.getRefreshExpiresIn()).thenReturn(refreshExpiresIn);
+
+        String token = coalescingRefreshTokenService.generateRefreshToken(userEntity);
+
+        verify(writeCoalescer, times(1)).insert(argThat(refreshToken -> refreshToken.getToken().equals(token)));
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    public void shouldRotateRefreshTokenWithSingleClaimAndInsert() {
+        when(jwtService.extractUsername(jwtToken)).thenReturn(username);
+        when(userService.findByUsername(username)).thenReturn(userEntity);
+        when(jwtProperties.getRefreshExpiresIn()).thenReturn(refreshExpiresIn);
+        when(refreshTokenRepository.claimByToken(refreshToken)).thenReturn(Optional.of(claimed(userEntity.getId(), Instant.now().plus(Duration.ofDays(1)))));
+
+        RefreshTokenEntity rotated = refreshTokenService.rotateRefreshToken(jwtToken, refreshToken);
+
+        assertEquals(userEntity, rotated.getUserEntity());
+        assertNotEquals(refreshToken, rotated.getToken());
+        // Rotation must cost exactly one delete-returning and one insert against the refresh token table
+        verify(refreshTokenRepository, times(1)).claimByToken(refreshToken);
+        verify(refreshTokenRepository, times(1)).save(any(RefreshTokenEntity.class));
+        verifyNoMoreInteractions(refreshTokenRepository);
+        assertEquals(1, meterRegistry.get(AuthMetrics.STAGE_TIMER).tag("stage", AuthMetrics.REFRESH_TOKEN_ROTATE).timer().count());
+        assertEquals(1, meterRegistry.get(AuthMetrics.STAGE_TIMER).tag("stage", AuthMetrics.REFRESH_TOKEN_DELETE).timer().count());
+        assertEquals(1, meterRegistry.get(AuthMetrics.STAGE_TIMER).tag("stage", AuthMetrics.REFRESH_TOKEN_INSERT).timer().count());
+    }
+
+    @Test
+    public void shouldThrowRefreshTokenNotFoundExceptionWhenAlreadyRotated() {
         when(jwtService.extractUsername(jwtToken)).thenReturn(username);
         when(userService.findByUsername(username)).thenReturn(userEntity);
-        when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.of(refreshTokenEntity));
+        when(refreshTokenRepository.claimByToken(refreshToken)).thenReturn(Optional.empty());
 
-        assertDoesNotThrow(() -> refreshTokenService.validateRefreshToken(jwtToken, refreshToken));
+        assertThrows(RefreshTokenNotFoundException.class, () -> refreshTokenService.rotateRefreshToken(jwtToken, refreshToken));
+        verify(refreshTokenRepository, never()).save(any(RefreshTokenEntity.class));
     }
 
     @Test
     public void shouldThrowJwtAndRefreshTokenMismatchException() {
-        UserEntity differentUser = UserEntity.builder().id(2L).username("differentUser").build();
-        RefreshTokenEntity refreshTokenEntity = RefreshTokenEntity.builder()
-                .userEntity(differentUser)
-                .token(refreshToken)
-                .expiryDate(Instant.now().plus(Duration.ofDays(1)))
-                .build();
         when(jwtService.extractUsername(jwtToken)).thenReturn(username);
         when(userService.findByUsername(username)).thenReturn(userEntity);
-        when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.of(refreshTokenEntity));
+        when(refreshTokenRepository.claimByToken(refreshToken)).thenReturn(Optional.of(claimed(2L, Instant.now().plus(Duration.ofDays(1)))));
 
-        assertThrows(JwtAndRefreshTokenMismatchException.class, () -> refreshTokenService.validateRefreshToken(jwtToken, refreshToken));
+        assertThrows(JwtAndRefreshTokenMismatchException.class, () -> refreshTokenService.rotateRefreshToken(jwtToken, refreshToken));
+        verify(refreshTokenRepository, never()).save(any(RefreshTokenEntity.class));
     }
 
     @Test
     public void shouldThrowExpiredRefreshTokenException() {
-        RefreshTokenEntity refreshTokenEntity = RefreshTokenEntity.builder()
-                .userEntity(userEntity)
-                .token(refreshToken)
-                .expiryDate(Instant.now().minus(Duration.ofDays(1)))
-                .build();
-
         when(jwtService.extractUsername(jwtToken)).thenReturn(username);
         when(userService.findByUsername(username)).thenReturn(userEntity);
-        when(refreshTokenRepository.findByToken(refreshToken)).thenReturn(Optional.of(refreshTokenEntity));
+        when(refreshTokenRepository.claimByToken(refreshToken)).thenReturn(Optional.of(claimed(userEntity.getId(), Instant.now().minus(Duration.ofDays(1)))));
+
+        assertThrows(ExpiredRefreshTokenException.class, () -> refreshTokenService.rotateRefreshToken(jwtToken, refreshToken));
+        verify(refreshTokenRepository, never()).save(any(RefreshTokenEntity.class));
+    }
 
-        assertThrows(ExpiredRefreshTokenException.class, () -> refreshTokenService.validateRefreshToken(jwtToken, refreshToken));
+    private static ClaimedRefreshToken claimed(Long userId, Instant expiryDate) {
+        return new ClaimedRefreshToken() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public Instant getExpiryDate() {
+                return expiryDate;
+            }
+        };
     }
 }
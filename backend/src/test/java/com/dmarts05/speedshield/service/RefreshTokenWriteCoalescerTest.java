@@ -0,0 +1,131 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.RefreshTokenBatchingProperties;
+import com.dmarts05.speedshield.model.RefreshTokenEntity;
+import com.dmarts05.speedshield.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenWriteCoalescerTest {
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private RefreshTokenWriteCoalescer writeCoalescer;
+
+    @BeforeEach
+    public void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        writeCoalescer = new RefreshTokenWriteCoalescer(refreshTokenRepository, transactionManager, new RefreshTokenBatchingProperties(true, 64, Duration.ofMillis(20), 1024), meterRegistry);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        writeCoalescer.close();
+    }
+
+    @Test
+    public void shouldCommitConcurrentInsertsInFewBatches() throws Exception {
+        AtomicInteger savedRows = new AtomicInteger();
+        when(refreshTokenRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<RefreshTokenEntity> refreshTokens = invocation.getArgument(0);
+            savedRows.addAndGet(refreshTokens.size());
+            return refreshTokens;
+        });
+
+        int logins = 200;
+        runConcurrently(logins, i -> writeCoalescer.insert(refreshToken("token" + i)));
+
+        assertEquals(logins, savedRows.get());
+        verify(transactionManager, atMost(logins / 10)).commit(any());
+        assertEquals(logins, meterRegistry.get("refresh.tokens.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    public void shouldIsolateFailingInsertOfBatch() throws Exception {
+        when(refreshTokenRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<RefreshTokenEntity> refreshTokens = invocation.getArgument(0);
+            if (refreshTokens.stream().anyMatch(RefreshTokenWriteCoalescerTest::isDuplicate)) {
+                throw new DataIntegrityViolationException("duplicate token");
+            }
+            return refreshTokens;
+        });
+        lenient().when(refreshTokenRepository.save(any(RefreshTokenEntity.class))).thenAnswer(invocation -> {
+            RefreshTokenEntity refreshToken = invocation.getArgument(0);
+            if (isDuplicate(refreshToken)) {
+                throw new DataIntegrityViolationException("duplicate token");
+            }
+            return refreshToken;
+        });
+
+        Future<?> duplicateInsert;
+        List<Future<?>> inserts = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            duplicateInsert = executor.submit(() -> writeCoalescer.insert(refreshToken("duplicate")));
+            for (int i = 0; i < 10; i++) {
+                String token = "token" + i;
+                inserts.add(executor.submit(() -> writeCoalescer.insert(refreshToken(token))));
+            }
+        }
+
+        assertInstanceOf(DataIntegrityViolationException.class, duplicateInsert.exceptionNow());
+        for (Future<?> insert : inserts) {
+            assertEquals(Future.State.SUCCESS, insert.state());
+        }
+    }
+
+    @Test
+    public void shouldInsertAloneOnceClosed() {
+        writeCoalescer.close();
+
+        writeCoalescer.insert(refreshToken("token"));
+
+        verify(refreshTokenRepository, times(1)).save(any(RefreshTokenEntity.class));
+        verify(refreshTokenRepository, never()).saveAll(anyList());
+    }
+
+    private static boolean isDuplicate(RefreshTokenEntity refreshToken) {
+        return refreshToken.getToken().equals("duplicate");
+    }
+
+    private static RefreshTokenEntity refreshToken(String token) {
+        return RefreshTokenEntity.builder().token(token).build();
+    }
+
+    private static void runConcurrently(int tasks, IntConsumer task) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> task.accept(index)));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+}
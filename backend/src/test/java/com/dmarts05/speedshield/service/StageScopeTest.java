@@ -0,0 +1,90 @@
+package com.dmarts05.speedshield.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageScopeTest {
+
+    @Test
+    public void shouldRunStagesConcurrently() {
+        // Neither stage can pass the barrier unless both are running at the same time
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        try (StageScope scope = new StageScope()) {
+            Supplier<String> first = scope.fork(() -> awaitBarrier(barrier, "first"));
+            Supplier<String> second = scope.fork(() -> awaitBarrier(barrier, "second"));
+            scope.join();
+
+            assertEquals("first", first.get());
+            assertEquals("second", second.get());
+        }
+    }
+
+    @Test
+    public void shouldRethrowFailureAndCancelOtherStages() throws InterruptedException {
+        IllegalArgumentException failure = new IllegalArgumentException("failed");
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(1);
+
+        try (StageScope scope = new StageScope()) {
+            scope.fork(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                } finally {
+                    finished.countDown();
+                }
+                return "slow";
+            });
+            scope.fork(() -> {
+                awaitLatch(started);
+                throw failure;
+            });
+
+            IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class, scope::join);
+            assertSame(failure, thrown);
+        }
+
+        assertTrue(finished.await(0, TimeUnit.SECONDS), "Cancelled stage should have finished once the scope closed");
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    public void shouldNotExposeResultOfFailedScope() {
+        Supplier<String> result;
+        try (StageScope scope = new StageScope()) {
+            result = scope.fork(() -> {
+                throw new IllegalStateException("failed");
+            });
+            assertThrows(IllegalStateException.class, scope::join);
+        }
+
+        assertThrows(IllegalStateException.class, result::get);
+    }
+
+    private static String awaitBarrier(CyclicBarrier barrier, String result) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+            return result;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
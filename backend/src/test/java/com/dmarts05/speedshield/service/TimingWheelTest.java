@@ -0,0 +1,74 @@
+package com.dmarts05.speedshield.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    public void shouldExpireEntriesOnceDue() {
+        TimingWheel<Entry> timingWheel = new TimingWheel<>(Duration.ofMinutes(1), Duration.ofMinutes(10), Entry::expiry, START);
+        Entry first = new Entry("first", START.plusSeconds(90));
+        Entry second = new Entry("second", START.plus(Duration.ofMinutes(5)));
+        timingWheel.add(first);
+        timingWheel.add(second);
+        List<Entry> expired = new ArrayList<>();
+
+        assertEquals(0, timingWheel.advance(START.plus(Duration.ofMinutes(1)), expired::add));
+        assertEquals(1, timingWheel.advance(START.plus(Duration.ofMinutes(2)), expired::add));
+        assertEquals(List.of(first), expired);
+        assertEquals(1, timingWheel.advance(START.plus(Duration.ofMinutes(5)), expired::add));
+        assertEquals(List.of(first, second), expired);
+    }
+
+    @Test
+    public void shouldKeepEntriesDueInLaterRotation() {
+        TimingWheel<Entry> timingWheel = new TimingWheel<>(Duration.ofMinutes(1), Duration.ofMinutes(3), Entry::expiry, START);
+        Entry entry = new Entry("entry", START.plus(Duration.ofMinutes(10)));
+        timingWheel.add(entry);
+        List<Entry> expired = new ArrayList<>();
+
+        // Every bucket has been visited at least twice by then
+        for (int minute = 1; minute < 10; minute++) {
+            timingWheel.advance(START.plus(Duration.ofMinutes(minute)), expired::add);
+        }
+        assertTrue(expired.isEmpty());
+
+        timingWheel.advance(START.plus(Duration.ofMinutes(10)), expired::add);
+        assertEquals(List.of(entry), expired);
+    }
+
+    @Test
+    public void shouldExpireOverdueEntriesOnNextTick() {
+        TimingWheel<Entry> timingWheel = new TimingWheel<>(Duration.ofMinutes(1), Duration.ofMinutes(10), Entry::expiry, START);
+        timingWheel.advance(START.plus(Duration.ofMinutes(5)), entry -> fail());
+        Entry overdue = new Entry("overdue", START.plus(Duration.ofMinutes(2)));
+        timingWheel.add(overdue);
+        List<Entry> expired = new ArrayList<>();
+
+        timingWheel.advance(START.plus(Duration.ofMinutes(6)), expired::add);
+
+        assertEquals(List.of(overdue), expired);
+    }
+
+    @Test
+    public void shouldNotExpireRemovedEntries() {
+        TimingWheel<Entry> timingWheel = new TimingWheel<>(Duration.ofMinutes(1), Duration.ofMinutes(10), Entry::expiry, START);
+        Entry entry = new Entry("entry", START.plus(Duration.ofMinutes(2)));
+        timingWheel.add(entry);
+
+        timingWheel.remove(entry);
+
+        assertEquals(0, timingWheel.advance(START.plus(Duration.ofMinutes(10)), removed -> fail()));
+    }
+
+    private record Entry(String name, Instant expiry) {
+    }
+}
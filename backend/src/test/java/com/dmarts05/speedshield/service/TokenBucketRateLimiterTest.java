@@ -0,0 +1,67 @@
+package com.dmarts05.speedshield.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    public void shouldAllowBurstUpToCapacityThenReject() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(3, Duration.ofMinutes(1), 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rateLimiter.tryAcquire("key").isZero());
+        }
+        Duration retryAfter = rateLimiter.tryAcquire("key");
+
+        assertFalse(retryAfter.isZero());
+        assertTrue(retryAfter.compareTo(Duration.ofMinutes(1)) <= 0);
+        assertTrue(rateLimiter.tryAcquire("otherKey").isZero());
+    }
+
+    @Test
+    public void shouldTakeSeveralAttemptsAtOnce() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, Duration.ofMinutes(1), 100);
+
+        assertTrue(rateLimiter.tryAcquire("key", 6).isZero());
+        assertFalse(rateLimiter.tryAcquire("key", 5).isZero());
+        assertTrue(rateLimiter.tryAcquire("key", 4).isZero());
+        assertFalse(rateLimiter.tryAcquire("key").isZero());
+        assertFalse(rateLimiter.tryAcquire("otherKey", 11).isZero());
+    }
+
+    @Test
+    public void shouldRefillAfterInterval() throws InterruptedException {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1, Duration.ofMillis(50), 100);
+
+        assertTrue(rateLimiter.tryAcquire("key").isZero());
+        assertFalse(rateLimiter.tryAcquire("key").isZero());
+        Thread.sleep(60);
+
+        assertTrue(rateLimiter.tryAcquire("key").isZero());
+    }
+
+    @Test
+    public void shouldNeverAllowMoreThanCapacityUnderContention() throws InterruptedException {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(100, Duration.ofHours(1), 100);
+        AtomicInteger allowed = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                executor.submit(() -> {
+                    if (rateLimiter.tryAcquire("key").isZero()) {
+                        allowed.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        assertEquals(100, allowed.get());
+    }
+}
@@ -0,0 +1,114 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.JwtProperties;
+import com.dmarts05.speedshield.config.TokenIntrospectionProperties;
+import com.dmarts05.speedshield.dto.TokenIntrospectionDto;
+import com.dmarts05.speedshield.model.Role;
+import com.dmarts05.speedshield.model.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenIntrospectionServiceTest {
+    private static final UserEntity USER = UserEntity.builder().id(1L).username("testUser").role(Role.USER).build();
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    private JwtService jwtService;
+    private TokenIntrospectionService tokenIntrospectionService;
+
+    @BeforeEach
+    public void beforeEach() {
+        JwtProperties jwtProperties = new JwtProperties(
+                "906424b7eee97ae4d23f4be0ed18885c439918ad0f509958902945301cf4d1e7",
+                "https://speedshield.dmarts05.com",
+                "https://speedshield.dmarts05.com",
+                Duration.ofMinutes(15),
+                Duration.ofDays(30),
+                null,
+                Map.of(),
+                false,
+                true);
+        jwtService = new JwtService(jwtProperties, new JwtKeyRing(jwtProperties), new SimpleMeterRegistry());
+        tokenIntrospectionService = new TokenIntrospectionService(jwtService, tokenRevocationService, new TokenIntrospectionProperties(2, 4, Duration.ofMinutes(1)));
+    }
+
+    @AfterEach
+    public void afterEach() {
+        tokenIntrospectionService.close();
+    }
+
+    @Test
+    public void shouldReturnClaimsOfActiveToken() {
+        TokenIntrospectionDto result = tokenIntrospectionService.introspect(jwtService.generateToken(USER));
+
+        assertTrue(result.isActive());
+        assertEquals("testUser", result.getSub());
+        assertEquals(1L, result.getUid());
+        assertEquals(Role.USER, result.getRole());
+        assertEquals("https://speedshield.dmarts05.com", result.getIss());
+        assertNotNull(result.getJti());
+        assertTrue(result.getExp() > result.getIat());
+    }
+
+    @Test
+    public void shouldReportExpiredInvalidAndRevokedTokensAsInactive() {
+        String expiredToken = jwtService.generateToken(Map.of("exp", new Date(System.currentTimeMillis() - 1000)), USER);
+        String revokedToken = jwtService.generateToken(USER);
+        when(tokenRevocationService.isRevoked(jwtService.verifyToken(revokedToken).orElseThrow().getTokenId())).thenReturn(true);
+
+        List<TokenIntrospectionDto> results = tokenIntrospectionService.introspect(List.of(expiredToken, "not-a-token", revokedToken));
+
+        assertEquals(3, results.size());
+        results.forEach(result -> {
+            assertFalse(result.isActive());
+            assertNull(result.getSub());
+        });
+    }
+
+    @Test
+    public void shouldKeepRequestOrderWhenVerifyingInParallel() {
+        List<String> tokens = new ArrayList<>();
+        for (long i = 0; i < 50; i++) {
+            tokens.add(i % 5 == 0 ? "invalid" : jwtService.generateToken(UserEntity.builder().id(i).username("user" + i).build()));
+        }
+
+        List<TokenIntrospectionDto> results = tokenIntrospectionService.introspect(tokens);
+
+        assertEquals(tokens.size(), results.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            assertEquals(i % 5 != 0, results.get(i).isActive());
+            if (i % 5 != 0) {
+                assertEquals("user" + i, results.get(i).getSub());
+            }
+        }
+    }
+
+    @Test
+    public void shouldCacheUntilFirstActiveTokenExpires() {
+        Instant now = Instant.ofEpochSecond(1_000_000);
+        List<TokenIntrospectionDto> results = List.of(
+                TokenIntrospectionDto.builder().active(true).exp(now.getEpochSecond() + 30).build(),
+                TokenIntrospectionDto.builder().active(true).exp(now.getEpochSecond() + 600).build(),
+                TokenIntrospectionDto.builder().active(false).build());
+
+        assertEquals(Duration.ofSeconds(30), tokenIntrospectionService.cacheLifetime(results, now));
+        assertEquals(Duration.ofMinutes(1), tokenIntrospectionService.cacheLifetime(results.subList(1, 3), now));
+        assertEquals(Duration.ZERO, tokenIntrospectionService.cacheLifetime(results, now.plusSeconds(60)));
+    }
+}
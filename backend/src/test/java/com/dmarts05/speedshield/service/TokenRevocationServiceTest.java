@@ -0,0 +1,90 @@
+package com.dmarts05.speedshield.service;
+
+import com.dmarts05.speedshield.config.TokenRevocationProperties;
+import com.dmarts05.speedshield.model.RevokedTokenEntity;
+import com.dmarts05.speedshield.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    public void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        TokenRevocationProperties properties = new TokenRevocationProperties(4, 0.01, Duration.ofMinutes(1));
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, properties, meterRegistry);
+    }
+
+    @Test
+    public void shouldRebuildDenylistAtStartup() {
+        Instant expiryDate = Instant.now().plusSeconds(600);
+        when(revokedTokenRepository.findAllByExpiryDateAfter(any())).thenReturn(List.of(new RevokedTokenEntity("revoked", expiryDate, Instant.now())));
+
+        tokenRevocationService.afterSingletonsInstantiated();
+
+        assertTrue(tokenRevocationService.isRevoked("revoked"));
+        assertFalse(tokenRevocationService.isRevoked("active"));
+        assertFalse(tokenRevocationService.isRevoked(null));
+        assertEquals(1, meterRegistry.get("auth.token.revocation.rejected").counter().count());
+    }
+
+    @Test
+    public void shouldPersistAndDenyRevokedToken() {
+        Instant expiryDate = Instant.now().plusSeconds(600);
+
+        tokenRevocationService.revoke("revoked", expiryDate);
+
+        assertTrue(tokenRevocationService.isRevoked("revoked"));
+        verify(revokedTokenRepository).save(argThat(revokedToken -> revokedToken.getTokenId().equals("revoked") && revokedToken.getExpiryDate().equals(expiryDate)));
+    }
+
+    @Test
+    public void shouldLoadTokensRevokedByOtherInstancesAndPruneExpiredOnes() {
+        Instant now = Instant.now();
+        tokenRevocationService.revoke("expiring", now.plusMillis(1));
+        when(revokedTokenRepository.findAllByRevokedAtAfter(any())).thenReturn(List.of(
+                new RevokedTokenEntity("remote", now.plusSeconds(600), now),
+                new RevokedTokenEntity("remoteExpired", now.minusSeconds(1), now.minusSeconds(600))));
+
+        tokenRevocationService.synchronize();
+        tokenRevocationService.prune(now.plusSeconds(1));
+
+        assertTrue(tokenRevocationService.isRevoked("remote"));
+        assertFalse(tokenRevocationService.isRevoked("remoteExpired"));
+        assertFalse(tokenRevocationService.isRevoked("expiring"));
+        assertEquals(1, meterRegistry.get("auth.token.revocation.denylist.size").gauge().value());
+        verify(revokedTokenRepository).deleteExpired(any());
+    }
+
+    @Test
+    public void shouldKeepDenyingTokensWhenBloomFilterIsResized() {
+        Instant expiryDate = Instant.now().plusSeconds(600);
+        for (int i = 0; i < 100; i++) {
+            tokenRevocationService.revoke("revoked" + i, expiryDate);
+        }
+
+        tokenRevocationService.prune(Instant.now());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(tokenRevocationService.isRevoked("revoked" + i));
+        }
+        assertFalse(tokenRevocationService.isRevoked("active"));
+    }
+}